@@ -0,0 +1,40 @@
+package org.game.connect4.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner runs the benchmarks with the GC profiler, reporting allocation per operation,
+ * and writes the results as JSON to jmh-result.json so they can be compared across releases.
+ * Every standard JMH command line option is accepted and takes precedence, for example
+ * {@code -p size=6x7} to run a single board size or {@code -rff other.json} to change the result file.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    /**
+     * Run the benchmarks
+     * @param args JMH command line options
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if the options can not be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        options.addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty())
+            options.include(BenchmarkRunner.class.getPackageName() + ".*");
+        if (!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue())
+            options.result("jmh-result.json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package org.game.connect4.benchmark;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.ConnectFourStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameBenchmark measures the per-move operations of ConnectFourGame over board sizes and game phases.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    /**
+     * Board size as heightxwidth, from the default grid up to large custom grids
+     */
+    @Param({"6x7", "8x9", "20x40"})
+    public String size;
+    /**
+     * Stage of the game of the benchmark position
+     */
+    @Param({"EARLY", "MIDGAME", "LATE"})
+    public Phase phase;
+
+    private ConnectFourGame game;
+    private int column;
+    private int lastMove;
+    private int[] moves;
+
+    /**
+     * Build the benchmark position
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.create(size, phase, 42);
+        moves = new int[game.getGameGrid().getWidth()];
+        game.getAllPossibleMoves(moves);
+        column = moves[0];
+        lastMove = game.getLastMove();
+        /* checkGameStatus expects the player of the last move to be the current player */
+        game.switchPlayer();
+    }
+
+    /**
+     * Play a move and take it back, keeping the position unchanged
+     * @return whether the move has been undone
+     */
+    @Benchmark
+    public boolean playMove() {
+        game.playMove(column);
+        return game.undoMove();
+    }
+
+    /**
+     * Check a playable column
+     * @return whether the move is valid
+     */
+    @Benchmark
+    public boolean isValidMove() {
+        return game.isValidMove(column);
+    }
+
+    /**
+     * Check the status after the last move of the position
+     * @return the status of the game
+     */
+    @Benchmark
+    public ConnectFourStatus checkGameStatus() {
+        return game.checkGameStatus(lastMove);
+    }
+
+    /**
+     * List the possible moves as boxed integers
+     * @return the possible moves
+     */
+    @Benchmark
+    public List<Integer> getAllPossibleMoves() {
+        return game.getAllPossibleMoves();
+    }
+
+    /**
+     * Write the possible moves into a reused buffer
+     * @return the number of possible moves
+     */
+    @Benchmark
+    public int getAllPossibleMovesBuffer() {
+        return game.getAllPossibleMoves(moves);
+    }
+
+    /**
+     * Get the possible moves as a bitmask
+     * @return the bitmask of the possible moves
+     */
+    @Benchmark
+    public long getPossibleMovesMask() {
+        return game.getPossibleMovesMask();
+    }
+}
@@ -0,0 +1,37 @@
+package org.game.connect4.benchmark;
+
+/**
+ * Phase enumerates the stages of a game at which a benchmark position is taken.
+ */
+public enum Phase {
+    /**
+     * Position with about 10% of the slots filled
+     */
+    EARLY(0.10),
+    /**
+     * Position with about 40% of the slots filled
+     */
+    MIDGAME(0.40),
+    /**
+     * Position with about 75% of the slots filled
+     */
+    LATE(0.75);
+
+    private final double fill;
+
+    /**
+     * Constructs a Phase with the share of filled slots
+     * @param fill share of filled slots
+     */
+    Phase(double fill) {
+        this.fill = fill;
+    }
+
+    /**
+     * Get the share of filled slots of a position in this phase
+     * @return share of filled slots between 0 and 1
+     */
+    public double getFill() {
+        return fill;
+    }
+}
@@ -0,0 +1,71 @@
+package org.game.connect4.benchmark;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.simulation.MovePolicy;
+import org.game.connect4.util.GameStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlayoutBenchmark measures complete random games, from the empty grid to a win or a tie.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+    /**
+     * Board size as heightxwidth, from the default grid up to large custom grids
+     */
+    @Param({"6x7", "8x9", "20x40"})
+    public String size;
+
+    private final MovePolicy policy = MovePolicy.random();
+    private ConnectFourGame game;
+    private SplittableRandom random;
+
+    /**
+     * Create the reused game
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] dimensions = Positions.parseSize(size);
+        game = new ConnectFourInitializer().initializeComputerVsComputer(dimensions[0], dimensions[1]);
+        random = new SplittableRandom(42);
+    }
+
+    /**
+     * Play a random game to its end and rewind it
+     * @return the number of moves of the game
+     */
+    @Benchmark
+    public int randomGame() {
+        while (true) {
+            int column = policy.selectMove(game, random);
+            game.playMove(column);
+            if (game.checkGameStatus(column).getGameStatus() != GameStatus.CONTINUE)
+                break;
+            game.switchPlayer();
+        }
+        int moves = game.getMoveCount();
+        while (game.undoMove()) {
+        }
+        return moves;
+    }
+}
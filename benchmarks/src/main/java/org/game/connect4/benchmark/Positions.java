@@ -0,0 +1,53 @@
+package org.game.connect4.benchmark;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.util.GameStatus;
+
+import java.util.SplittableRandom;
+
+/**
+ * Positions builds reproducible benchmark positions.
+ */
+final class Positions {
+
+    private Positions() {}
+
+    /**
+     * Parse a board size written as heightxwidth
+     * @param size the board size, such as 6x7
+     * @return the height and the width
+     */
+    static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    /**
+     * Create a game and play random moves which do not end it until a share of the slots is filled.
+     * The player to move is switched after every move, as a client would do.
+     * @param size the board size, such as 6x7
+     * @param phase the stage of the game
+     * @param seed the seed of the random moves
+     * @return a game in progress
+     */
+    static ConnectFourGame create(String size, Phase phase, long seed) {
+        int[] dimensions = parseSize(size);
+        ConnectFourGame game = new ConnectFourInitializer().initializeComputerVsComputer(dimensions[0], dimensions[1]);
+        SplittableRandom random = new SplittableRandom(seed);
+        int target = (int) (phase.getFill() * dimensions[0] * dimensions[1]);
+        int attempts = 0;
+        while (game.getMoveCount() < target && attempts < 100 * target) {
+            attempts++;
+            int column = 1 + random.nextInt(dimensions[1]);
+            if (!game.playMove(column))
+                continue;
+            if (game.checkGameStatus(column).getGameStatus() != GameStatus.CONTINUE) {
+                game.undoMove();
+                continue;
+            }
+            game.switchPlayer();
+        }
+        return game;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The package includes the JMH benchmarks of the hot paths of the Connect Four API.
+ */
+package org.game.connect4.benchmark;
@@ -1,5 +1,9 @@
 package org.game.connect4;
 
+import org.game.connect4.event.GameEvent;
+import org.game.connect4.event.GameEventPublisher;
+import org.game.connect4.metrics.GameMetrics;
+import org.game.connect4.model.Bitboard;
 import org.game.connect4.model.ConnectFourStatus;
 import org.game.connect4.model.GameGrid;
 import org.game.connect4.model.GridPosition;
@@ -7,7 +11,11 @@ import org.game.connect4.model.Player;
 import org.game.connect4.util.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ConnectFourGame contains the core logic of the ConnectFour game and all the functions required to play the game.
@@ -63,12 +71,34 @@ import java.util.List;
  * </pre>
  */
 public class ConnectFourGame {
+    /**
+     * Shared status returned while the game continues
+     */
+    private static final ConnectFourStatus CONTINUE_STATUS =
+            new ConnectFourStatus(GameStatus.CONTINUE, Collections.emptyList());
+    /**
+     * Shared status returned when the game is tied
+     */
+    private static final ConnectFourStatus TIE_STATUS =
+            new ConnectFourStatus(GameStatus.TIE, Collections.emptyList());
     private final GameGrid gameGrid;
-    private final GameMode gameMode;
-    private final Player player1;
-    private final Player player2;
+    private GameMode gameMode;
+    private Player player1;
+    private Player player2;
     private Player currentPlayer;
     private List<GridPosition> winningSequence;
+    private ConnectFourStatus status;
+    private final int[] moveHistory;
+    private final ConnectFourStatus[] statusHistory;
+    private int historySize;
+    private GameMetrics metrics;
+    private boolean startRecorded;
+    private boolean finishRecorded;
+    private GameEventPublisher events;
+    private long gameId;
+    /* set by the pool handing out the game, null for a game created elsewhere */
+    ConnectFourGamePool pool;
+    AtomicBoolean handedOut;
 
     /**
      * Constructs a ConnectFour game with gameGrid, gameMode, player1 and player2
@@ -83,7 +113,11 @@ public class ConnectFourGame {
         this.player1 = player1;
         this.player2 = player2;
         this.currentPlayer = player1;
-        this.winningSequence = new ArrayList<>();
+        this.winningSequence = Collections.emptyList();
+        this.status = CONTINUE_STATUS;
+        /* every slot of the grid takes one move, which bounds the history */
+        this.moveHistory = new int[gameGrid.getHeight() * gameGrid.getWidth()];
+        this.statusHistory = new ConnectFourStatus[moveHistory.length];
     }
 
     /**
@@ -134,6 +168,60 @@ public class ConnectFourGame {
         return player2;
     }
 
+    /**
+     * Get the metrics the game reports to
+     * @return the metrics, or null if the game is not measured
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics the game reports to. A measured game records the duration of every move and status check,
+     * counts itself as started when its first move is played and as finished when a status check ends it.
+     * A game is counted at most once as started and once as finished until it is reset, whatever moves are undone.
+     * A game without metrics does not measure anything.
+     * @param metrics the metrics, or null to stop measuring the game
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the publisher the game streams its events to
+     * @return the publisher, or null if the game publishes no event
+     */
+    public GameEventPublisher getEvents() {
+        return events;
+    }
+
+    /**
+     * Set the publisher the game streams its events to. The game publishes an event when a move is played or undone,
+     * when a status check changes the status, and when a status check ends the game.
+     * The events are only built while the publisher has subscribers.
+     * @param events the publisher, or null to stop publishing events
+     */
+    public void setEvents(GameEventPublisher events) {
+        this.events = events;
+    }
+
+    /**
+     * Get the ID the events of the game carry
+     * @return the ID of the game, 0 unless it has been set
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Set the ID the events of the game carry, which tells them apart from the events of the other games
+     * sharing its publisher. A {@link org.game.connect4.session.GameSessionManager} sets it to the session ID.
+     * @param gameId the ID of the game
+     */
+    public void setGameId(long gameId) {
+        this.gameId = gameId;
+    }
+
     /**
      * Get the winning sequence of the game
      * @return a list of GridPosition sorted by row number representing the winning sequence
@@ -142,9 +230,56 @@ public class ConnectFourGame {
         return winningSequence;
     }
 
+    /**
+     * Get the status computed by the last call to checkGameStatus, restored when a move is undone
+     * @return ConnectFourStatus object which stores both game status and winning sequences
+     */
+    public ConnectFourStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the number of moves played and not undone
+     * @return number of moves in the move history
+     */
+    public int getMoveCount() {
+        return historySize;
+    }
+
+    /**
+     * Get the last move played and not undone
+     * @return the column number (starting from 1...) of the last move, or 0 if no move has been played
+     */
+    public int getLastMove() {
+        return historySize == 0 ? 0 : moveHistory[historySize - 1] + 1;
+    }
+
+    /**
+     * Get a move of the move history
+     * @param index the index of the move, from 0 for the first move to getMoveCount() - 1 for the last one
+     * @return the column number (starting from 1...) of the move
+     * @throws IndexOutOfBoundsException if no move has been played at this index
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= historySize)
+            throw new IndexOutOfBoundsException("Move " + index + " has not been played.");
+        return moveHistory[index] + 1;
+    }
+
+    /**
+     * Write the moves played so far, in order, into a buffer supplied by the caller
+     * @param moves the buffer receiving the column numbers (starting from 1...), it must hold at least getMoveCount() entries
+     * @return the number of column numbers written at the start of the buffer
+     */
+    public int getMoveHistory(int[] moves) {
+        for (int i = 0; i < historySize; i++)
+            moves[i] = moveHistory[i] + 1;
+        return historySize;
+    }
+
     /**
      * Set the winning sequence of the game
-     * @param winningSequence a sequence of tokens having length >= 4
+     * @param winningSequence a sequence of tokens having length >= the win length of the grid
      */
     private void setWinningSequence(List<GridPosition> winningSequence) {
         this.winningSequence = winningSequence;
@@ -156,7 +291,7 @@ public class ConnectFourGame {
      * @return true for the valid movement and false for the invalid movement
      */
     public boolean isValidMove(int column) {
-        return column >= 1 && column <= getGameGrid().getWidth() && getGameGrid().getGrid().get(column-1).size() < getGameGrid().getHeight();
+        return getGameGrid().getBitboard().canPlay(column - 1);
     }
 
     /**
@@ -174,78 +309,244 @@ public class ConnectFourGame {
      * @return true if the move is played successfully
      */
     public boolean playMove(int column) {
+        boolean played;
+        if (metrics == null) {
+            played = dropToken(column);
+        }
+        else {
+            long start = System.nanoTime();
+            played = dropToken(column);
+            if (played) {
+                metrics.recordMove(System.nanoTime() - start);
+                if (!startRecorded) {
+                    startRecorded = true;
+                    metrics.recordGameStarted();
+                }
+            }
+        }
+        if (played && events != null && events.hasSubscribers())
+            publish(GameEvent.Type.MOVE_PLAYED, column, getCurrentPlayer().getTokenColor());
+        return played;
+    }
+
+    /**
+     * Drop the token of the current player into the grid and push the move onto the history
+     * @param column the column number (starting from 1...) where the current player wants to put a token
+     * @return true if the move is played successfully
+     */
+    private boolean dropToken(int column) {
         if(!isValidMove(column))
             return false;
         column -= 1;
-        getGameGrid().getGrid().get(column).add(getCurrentPlayer().getTokenColor().getSymbol());
+        getGameGrid().dropToken(column, getCurrentPlayer().getTokenColor());
+        moveHistory[historySize] = column;
+        statusHistory[historySize] = status;
+        historySize++;
+        return true;
+    }
+
+    /**
+     * Take back the last move played. The token is removed from the grid, the player who played the move
+     * becomes the current player again and the status from before the move is restored.
+     * Searches and analyses can make and unmake moves this way on a single game without copying the grid.
+     * @return true if a move has been undone, false if no move has been played
+     */
+    public boolean undoMove() {
+        if (historySize == 0)
+            return false;
+        historySize--;
+        int column = moveHistory[historySize];
+        TokenColor color = getGameGrid().removeToken(column);
+        setCurrentPlayer(color == getPlayer1().getTokenColor() ? getPlayer1() : getPlayer2());
+        status = statusHistory[historySize];
+        statusHistory[historySize] = null;
+        setWinningSequence(status.getWinningSequence());
+        if (events != null && events.hasSubscribers())
+            publish(GameEvent.Type.MOVE_UNDONE, column + 1, color);
         return true;
     }
 
+    /**
+     * Rewind the game to an empty grid with player 1 to move, as it was when it was constructed.
+     * The tokens of the moves played are removed from the grid, which is reused along with the move history,
+     * so no allocation happens. The metrics and the event publisher of the game are kept, and no event is published.
+     * The next move played counts as the start of a new game in the metrics.
+     */
+    public void reset() {
+        startRecorded = false;
+        finishRecorded = false;
+        while (historySize > 0) {
+            historySize--;
+            getGameGrid().removeToken(moveHistory[historySize]);
+            statusHistory[historySize] = null;
+        }
+        setCurrentPlayer(getPlayer1());
+        status = CONTINUE_STATUS;
+        setWinningSequence(Collections.emptyList());
+    }
+
+    /**
+     * Rewind the game and hand it to new players, so that a pooled game can be reused by a new match
+     * @param gameMode the game mode of the new match
+     * @param player1 the first player of the new match
+     * @param player2 the second player of the new match
+     */
+    void reset(GameMode gameMode, Player player1, Player player2) {
+        reset();
+        this.gameMode = gameMode;
+        this.player1 = player1;
+        this.player2 = player2;
+        setCurrentPlayer(player1);
+    }
+
     /**
      * Return all the possible column numbers for users to put their tokens
      * @return the list of column numbers (starting from 1...) which are available for a movement
      */
     public List<Integer> getAllPossibleMoves(){
-        List<Integer> possibleMove = new ArrayList<>();
-        for (int index = 0; index < getGameGrid().getWidth(); index ++){
-            if (isValidMove(index))
-                possibleMove.add(index + 1);
+        int[] moves = new int[getGameGrid().getWidth()];
+        int count = getAllPossibleMoves(moves);
+        List<Integer> possibleMove = new ArrayList<>(count);
+        for (int index = 0; index < count; index ++){
+            possibleMove.add(moves[index]);
         }
         return possibleMove;
     }
 
+    /**
+     * Write all the possible column numbers for users to put their tokens into a buffer supplied by the caller.
+     * The buffer can be reused between calls, so that no allocation happens.
+     * @param moves the buffer receiving the column numbers (starting from 1...), it must hold at least width entries
+     * @return the number of column numbers written at the start of the buffer
+     */
+    public int getAllPossibleMoves(int[] moves){
+        Bitboard bitboard = getGameGrid().getBitboard();
+        int count = 0;
+        for (int index = 0; index < bitboard.getWidth(); index ++){
+            if (bitboard.canPlay(index))
+                moves[count++] = index + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Return all the possible columns for users to put their tokens as a bitmask.
+     * Bit (column - 1) is set when the column (starting from 1...) is available for a movement.
+     * @return the bitmask of the available columns
+     * @throws IllegalStateException if the grid is wider than 64 columns
+     */
+    public long getPossibleMovesMask(){
+        Bitboard bitboard = getGameGrid().getBitboard();
+        if (bitboard.getWidth() > Long.SIZE)
+            throw new IllegalStateException("A grid with " + bitboard.getWidth() + " columns does not fit into a bitmask.");
+        long mask = 0L;
+        for (int index = 0; index < bitboard.getWidth(); index ++){
+            if (bitboard.canPlay(index))
+                mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    /**
+     * Iterate over all the possible column numbers for users to put their tokens without boxing them.
+     * The iterator reads the grid lazily, so the grid should not be changed while iterating.
+     * @return an iterator over the column numbers (starting from 1...) which are available for a movement
+     */
+    public PrimitiveIterator.OfInt possibleMovesIterator(){
+        return new PossibleMovesIterator(getGameGrid().getBitboard());
+    }
+
     /**
      * Check the game status to determine if players have won/tied/or should continue
      * @param lastCol the number of column (starting from 1...) where the last player placed the token
      * @return ConnectFourStatus object which stores both game status and winning sequences
      */
     public ConnectFourStatus checkGameStatus(int lastCol){
-        lastCol -= 1;
-        int lastRow = getGameGrid().getGrid().get(lastCol).size()-1;
-        Character currColor = getCurrentPlayer().getTokenColor().getSymbol();
+        if (metrics == null && events == null)
+            return computeGameStatus(lastCol);
+        GameStatus previous = status.getGameStatus();
+        long start = System.nanoTime();
+        ConnectFourStatus result = computeGameStatus(lastCol);
+        if (metrics != null) {
+            metrics.recordStatusCheck(System.nanoTime() - start);
+            /* a game whose start was not counted is not counted as finished either, so the counts stay balanced */
+            if (startRecorded && !finishRecorded && previous == GameStatus.CONTINUE
+                    && result.getGameStatus() != GameStatus.CONTINUE) {
+                finishRecorded = true;
+                metrics.recordGameFinished(result.getGameStatus());
+            }
+        }
+        if (events != null && previous != result.getGameStatus() && events.hasSubscribers()) {
+            publish(GameEvent.Type.STATUS_CHANGED, 0, null);
+            if (result.getGameStatus() != GameStatus.CONTINUE)
+                publish(GameEvent.Type.GAME_OVER, 0, null);
+        }
+        return result;
+    }
 
-        if(checkRow(lastRow, lastCol, currColor) || checkCol(lastRow, lastCol, currColor) ||
-        checkLeftDiagonal(lastRow, lastCol, currColor) || checkRightDiagonal(lastRow, lastCol, currColor)) {
-            if (currColor == getPlayer1().getTokenColor().getSymbol()) {
-                return new ConnectFourStatus(GameStatus.PLAYER_1_WINS, getWinningSequence());
+    /**
+     * Publish an event with the current status and a snapshot of the grid
+     * @param type kind of the event
+     * @param column column number (starting from 1...) of the move played or undone, or 0
+     * @param color color of the token played or undone, or null
+     */
+    private void publish(GameEvent.Type type, int column, TokenColor color) {
+        events.publish(new GameEvent(gameId, type, historySize, column, color, status.getGameStatus(),
+                status.getWinningSequence(), getGameGrid().snapshot()));
+    }
+
+    /**
+     * Compute the game status after the last move and store it as the status of the game
+     * @param lastCol the number of column (starting from 1...) where the last player placed the token
+     * @return ConnectFourStatus object which stores both game status and winning sequences
+     */
+    private ConnectFourStatus computeGameStatus(int lastCol){
+        lastCol -= 1;
+        /* the bitboard answers whether the last move has won, the winning sequence is only built for a win */
+        if (getGameGrid().getBitboard().isWinAt(lastCol)) {
+            int lastRow = getGameGrid().getColumnHeight(lastCol)-1;
+            /* the winner is whoever owns the last token, even if the turn has already passed to the other player */
+            TokenColor currColor = getGameGrid().getToken(lastRow, lastCol);
+            if (!checkRow(lastRow, lastCol, currColor) && !checkCol(lastRow, lastCol, currColor) &&
+                    !checkLeftDiagonal(lastRow, lastCol, currColor))
+                checkRightDiagonal(lastRow, lastCol, currColor);
+            if (currColor == getPlayer1().getTokenColor()) {
+                status = new ConnectFourStatus(GameStatus.PLAYER_1_WINS, getWinningSequence());
             }
             else
-                return new ConnectFourStatus(GameStatus.PLAYER_2_WINS, getWinningSequence());
+                status = new ConnectFourStatus(GameStatus.PLAYER_2_WINS, getWinningSequence());
         }
         else {
-            int totalOccupiedGrid = 0;
-            for (List<Character> c : getGameGrid().getGrid()){
-                totalOccupiedGrid += c.size();
-            }
             //case 3: Tie
-            if (totalOccupiedGrid == getGameGrid().getHeight() * getGameGrid().getWidth()){
-                return new ConnectFourStatus(GameStatus.TIE, getWinningSequence());
+            if (getGameGrid().isFull()){
+                status = TIE_STATUS;
             }
             // case 4: Game Continue
             else {
-                return new ConnectFourStatus(GameStatus.CONTINUE, getWinningSequence());
+                status = CONTINUE_STATUS;
             }
         }
+        return status;
     }
 
     /**
-     * Check if there are four or more consecutive tokens of the same color in row and
+     * Check if there are at least win length consecutive tokens of the same color in row and
      * set the winning sequence if some player wins
      * @param row the index number of row that has the token placed by the last player who played the last turn
      * @param col the index number of column that has the token placed by the player who played the last turn
      * @param currColor the color of the token placed by the player who played the last turn
-     * @return true if the length of the longest row sequence is greater than or equal to 4 and false otherwise
+     * @return true if the length of the longest row sequence is greater than or equal to the win length and false otherwise
      */
-    private boolean checkRow (int row, int col, Character currColor){
+    private boolean checkRow (int row, int col, TokenColor currColor){
         int maxSequence = 1;
         List<GridPosition> winningSequence = new ArrayList<>();
         winningSequence.add(0, new GridPosition(row + 1, col + 1));
-        while (row - 1 >= 0 && currColor == getGameGrid().getGrid().get(col).get(row - 1)){
+        while (row - 1 >= 0 && currColor == getGameGrid().getToken(row - 1, col)){
             maxSequence += 1;
             winningSequence.add(0,new GridPosition(row, col + 1));
             row -= 1;
         }
-        if (maxSequence >= 4) {
+        if (maxSequence >= getGameGrid().getWinLength()) {
             setWinningSequence(winningSequence);
             return true;
         }
@@ -253,33 +554,31 @@ public class ConnectFourGame {
     }
 
     /**
-     * Check if there are four or more consecutive tokens of the same color in a column and
+     * Check if there are at least win length consecutive tokens of the same color in a column and
      * set the winning sequence if some player wins
      * @param row the index number of row that has the token placed by the last player who played the last turn
      * @param col the index number of column that has the token placed by the player who played the last turn
      * @param currColor the color of the token placed by the player who played the last turn
-     * @return true if the length of the longest column sequence is greater than or equal to 4 and false otherwise
+     * @return true if the length of the longest column sequence is greater than or equal to the win length and false otherwise
      */
-    private boolean checkCol (int row, int col, Character currColor){
+    private boolean checkCol (int row, int col, TokenColor currColor){
         int maxSequence = 1;
         int tempCol = col;
         List<GridPosition> winningSequence = new ArrayList<>();
         winningSequence.add(new GridPosition(row + 1, col + 1));
-        while (col - 1 >= 0 && row < getGameGrid().getGrid().get(col - 1).size() &&
-                currColor == getGameGrid().getGrid().get(col - 1).get(row)){
+        while (col - 1 >= 0 && currColor == getGameGrid().getToken(row, col - 1)){
             maxSequence += 1;
             winningSequence.add(0, new GridPosition(row + 1, col));
             col -= 1;
         }
         col = tempCol;
 
-        while (col + 1 < getGameGrid().getWidth() && row < getGameGrid().getGrid().get(col + 1).size() &&
-                currColor == getGameGrid().getGrid().get(col + 1).get(row)){
+        while (col + 1 < getGameGrid().getWidth() && currColor == getGameGrid().getToken(row, col + 1)){
             maxSequence += 1;
             winningSequence.add(new GridPosition(row + 1, col + 2));
             col += 1;
         }
-        if (maxSequence >= 4) {
+        if (maxSequence >= getGameGrid().getWinLength()) {
             setWinningSequence(winningSequence);
             return true;
         }
@@ -287,22 +586,22 @@ public class ConnectFourGame {
     }
 
     /**
-     * Check if there are four or more consecutive tokens of the same color in right diagonal and
+     * Check if there are at least win length consecutive tokens of the same color in right diagonal and
      * set the winning sequence if some player wins
      * @param row the index number of row that has the token placed by the last player who played the last turn
      * @param col the index number of column that has the token placed by the player who played the last turn
      * @param currColor the color of the token placed by the player who played the last turn
-     * @return true if the length of the longest right diagonal sequence is greater than or equal to 4 and false otherwise
+     * @return true if the length of the longest right diagonal sequence is greater than or equal to the win length and false otherwise
      */
-    private boolean checkRightDiagonal (int row, int col, Character currColor){
+    private boolean checkRightDiagonal (int row, int col, TokenColor currColor){
         int maxSequence = 1;
         int tempRow = row;
         int tempCol = col;
         List<GridPosition> winningSequence = new ArrayList<>();
         winningSequence.add(new GridPosition(row + 1, col + 1));
 
-        while (col - 1 >= 0 && row - 1 >= 0 && row - 1 < getGameGrid().getGrid().get(col - 1).size() &&
-                currColor == getGameGrid().getGrid().get(col - 1).get(row - 1)){
+        while (col - 1 >= 0 && row - 1 >= 0 &&
+                currColor == getGameGrid().getToken(row - 1, col - 1)){
             maxSequence += 1;
             winningSequence.add(0, new GridPosition(row, col));
             col -= 1;
@@ -311,14 +610,13 @@ public class ConnectFourGame {
         row = tempRow;
         col = tempCol;
         while (col + 1 < getGameGrid().getWidth() && row + 1 < getGameGrid().getHeight() &&
-                row + 1 < getGameGrid().getGrid().get(col + 1).size() &&
-                currColor == getGameGrid().getGrid().get(col + 1).get(row + 1)){
+                currColor == getGameGrid().getToken(row + 1, col + 1)){
             maxSequence += 1;
             winningSequence.add(new GridPosition(row + 2, col + 2));
             col += 1;
             row += 1;
         }
-        if (maxSequence >= 4) {
+        if (maxSequence >= getGameGrid().getWinLength()) {
             setWinningSequence(winningSequence);
             return true;
         }
@@ -326,14 +624,14 @@ public class ConnectFourGame {
     }
 
     /**
-     * Check if there are four or more consecutive tokens of the same color in left diagonal and
+     * Check if there are at least win length consecutive tokens of the same color in left diagonal and
      * set the winning sequence if some player wins
      * @param row the index number of row that has the token placed by the last player who played the last turn
      * @param col the index number of column that has the token placed by the player who played the last turn
      * @param currColor the color of the token placed by the player who played the last turn
-     * @return true if the length of the longest left diagonal sequence is greater than or equal to 4 and false otherwise
+     * @return true if the length of the longest left diagonal sequence is greater than or equal to the win length and false otherwise
      */
-    private boolean checkLeftDiagonal (int row, int col, Character currColor){
+    private boolean checkLeftDiagonal (int row, int col, TokenColor currColor){
         int maxSequence = 1;
         int tempRow = row;
         int tempCol = col;
@@ -341,8 +639,7 @@ public class ConnectFourGame {
         winningSequence.add(new GridPosition(row + 1, col + 1));
 
         while (col + 1 < getGameGrid().getWidth() && row - 1 >= 0 &&
-                row - 1 < getGameGrid().getGrid().get(col + 1).size() &&
-                currColor == getGameGrid().getGrid().get(col + 1).get(row - 1)){
+                currColor == getGameGrid().getToken(row - 1, col + 1)){
             maxSequence += 1;
             winningSequence.add(0, new GridPosition(row, col + 2));
             col += 1;
@@ -351,18 +648,52 @@ public class ConnectFourGame {
         row = tempRow;
         col = tempCol;
         while (col - 1 >= 0 && row + 1 < getGameGrid().getHeight() &&
-                row + 1 < getGameGrid().getGrid().get(col - 1).size() &&
-                currColor == getGameGrid().getGrid().get(col - 1).get(row + 1)){
+                currColor == getGameGrid().getToken(row + 1, col - 1)){
             maxSequence += 1;
             winningSequence.add(new GridPosition(row + 2, col));
             col -= 1;
             row += 1;
         }
-        if (maxSequence >= 4) {
+        if (maxSequence >= getGameGrid().getWinLength()) {
             setWinningSequence(winningSequence);
             return true;
         }
         return false;
     }
 
+    /**
+     * PossibleMovesIterator walks the columns of a bitboard and returns the ones which are not full.
+     */
+    private static class PossibleMovesIterator implements PrimitiveIterator.OfInt {
+        /**
+         * The bitboard of the game
+         */
+        private final Bitboard bitboard;
+        /**
+         * Index of the next column (starting from 0...) to look at
+         */
+        private int index;
+
+        /**
+         * Constructs an iterator over the possible moves of a bitboard
+         * @param bitboard the bitboard of the game
+         */
+        PossibleMovesIterator(Bitboard bitboard) {
+            this.bitboard = bitboard;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index < bitboard.getWidth() && !bitboard.canPlay(index))
+                index++;
+            return index < bitboard.getWidth();
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return ++index;
+        }
+    }
 }
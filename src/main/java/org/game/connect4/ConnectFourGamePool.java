@@ -0,0 +1,171 @@
+package org.game.connect4;
+
+import org.game.connect4.exception.InvalidDimensionException;
+import org.game.connect4.model.GameGrid;
+import org.game.connect4.model.Player;
+import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.GameMode;
+import org.game.connect4.util.PlayerID;
+import org.game.connect4.util.TokenColor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectFourGamePool hands out games of one grid size and win length, recycling the games released to it.
+ * <br/>
+ * A recycled game keeps its grid and move history, which are rewound by {@link ConnectFourGame#reset()}, and only
+ * its players are replaced, so handing out a game only allocates the players named by the caller: the computer
+ * players are immutable flyweights shared by every game. The dimensions are checked once, with the same rules as
+ * {@link ConnectFourInitializer}. At most a fixed number of idle games are kept; games released beyond it are
+ * left to the garbage collector.
+ * <br/>
+ * A pool can be shared between threads. A game must not be used anymore once it has been released, and only the
+ * games handed out by the pool and not released yet can be released, so a game is never handed out twice at once.
+ * Every game records the pool it belongs to and whether it is handed out, so this check takes no lock.
+ */
+public class ConnectFourGamePool {
+    /**
+     * Height of the grid of every game
+     */
+    private final int height;
+    /**
+     * Width of the grid of every game
+     */
+    private final int width;
+    /**
+     * Number of consecutive tokens needed to win every game
+     */
+    private final int winLength;
+    /**
+     * Games released and waiting to be handed out again
+     */
+    private final ArrayBlockingQueue<ConnectFourGame> idle;
+    /**
+     * Number of games created by the pool
+     */
+    private final AtomicLong created = new AtomicLong();
+    /**
+     * Number of games handed out again after being released
+     */
+    private final AtomicLong recycled = new AtomicLong();
+
+    /**
+     * Constructs a ConnectFourGamePool of games with the default grid dimensions and win length
+     * @param maxIdle maximum number of idle games kept by the pool
+     * @throws IllegalArgumentException if the maximum number of idle games is not positive
+     */
+    public ConnectFourGamePool(int maxIdle) {
+        this(GameConstants.DEFAULT_HEIGHT, GameConstants.DEFAULT_WIDTH, GameConstants.DEFAULT_WIN_LENGTH, maxIdle);
+    }
+
+    /**
+     * Constructs a ConnectFourGamePool
+     * @param height Height of the grid of every game
+     * @param width Width of the grid of every game
+     * @param winLength Number of consecutive tokens needed to win every game
+     * @param maxIdle maximum number of idle games kept by the pool
+     * @throws InvalidDimensionException when the grid dimensions or the win length are invalid
+     * @throws IllegalArgumentException if the maximum number of idle games is not positive
+     */
+    public ConnectFourGamePool(int height, int width, int winLength, int maxIdle) {
+        ConnectFourInitializer.checkGridDimensions(height, width, winLength);
+        if (maxIdle <= 0)
+            throw new IllegalArgumentException("Maximum number of idle games should be > 0.");
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Hand out a game for Player Vs Player mode
+     * @param name1 Name of the first player
+     * @param name2 Name of the second player
+     * @return a game without moves, with the first player to move
+     */
+    public ConnectFourGame acquirePlayerVsPlayer(String name1, String name2) {
+        return acquire(GameMode.PLAYER_VS_PLAYER, new Player(PlayerID.PLAYER_1, name1, false, TokenColor.RED),
+                new Player(PlayerID.PLAYER_2, name2, false, TokenColor.BLUE));
+    }
+
+    /**
+     * Hand out a game for Player Vs Computer mode
+     * @param name Name of the human player
+     * @return a game without moves, with the human player to move
+     */
+    public ConnectFourGame acquirePlayerVsComputer(String name) {
+        return acquire(GameMode.PLAYER_VS_COMPUTER, new Player(PlayerID.PLAYER_1, name, false, TokenColor.RED),
+                ConnectFourInitializer.COMPUTER_OPPONENT);
+    }
+
+    /**
+     * Hand out a game for Computer Vs Computer mode, which allocates nothing once the pool holds an idle game
+     * @return a game without moves, with the first computer to move
+     */
+    public ConnectFourGame acquireComputerVsComputer() {
+        return acquire(GameMode.COMPUTER_VS_COMPUTER, ConnectFourInitializer.COMPUTER1, ConnectFourInitializer.COMPUTER2);
+    }
+
+    /**
+     * Give a game back to the pool. Its metrics, event publisher and ID are removed.
+     * @param game a game handed out by this pool, which must not be used anymore
+     * @throws IllegalArgumentException if the game was not handed out by this pool, or has already been released
+     */
+    public void release(ConnectFourGame game) {
+        if (game.pool != this || !game.handedOut.compareAndSet(true, false))
+            throw new IllegalArgumentException("The game was not handed out by this pool, or has already been released.");
+        game.setMetrics(null);
+        game.setEvents(null);
+        game.setGameId(0);
+        game.reset();
+        idle.offer(game);
+    }
+
+    /**
+     * Get the number of idle games kept by the pool
+     * @return number of idle games
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Get the number of games created by the pool
+     * @return number of games created
+     */
+    public long getCreated() {
+        return created.get();
+    }
+
+    /**
+     * Get the number of games handed out again after being released
+     * @return number of games recycled
+     */
+    public long getRecycled() {
+        return recycled.get();
+    }
+
+    /**
+     * Hand out an idle game to new players, or create one if no game is idle
+     * @param gameMode the game mode
+     * @param player1 the first player
+     * @param player2 the second player
+     * @return a game without moves, with the first player to move
+     */
+    private ConnectFourGame acquire(GameMode gameMode, Player player1, Player player2) {
+        ConnectFourGame game = idle.poll();
+        if (game == null) {
+            created.incrementAndGet();
+            game = new ConnectFourGame(new GameGrid(height, width, winLength), gameMode, player1, player2);
+            game.pool = this;
+            game.handedOut = new AtomicBoolean(true);
+            return game;
+        }
+        recycled.incrementAndGet();
+        game.reset(gameMode, player1, player2);
+        game.handedOut.set(true);
+        return game;
+    }
+}
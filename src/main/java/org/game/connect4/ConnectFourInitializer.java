@@ -14,6 +14,19 @@ import org.game.connect4.util.TokenColor;
  * This is not an exhaustive list of methods. Similar functionalities can be implemented in the client code.
  */
 public class ConnectFourInitializer {
+    /**
+     * Computer playing first in Computer Vs Computer games. Players are immutable, so every game shares it.
+     */
+    static final Player COMPUTER1 = new Player(PlayerID.PLAYER_1, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.RED);
+    /**
+     * Computer playing second in Computer Vs Computer games, shared by every game
+     */
+    static final Player COMPUTER2 = new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER2, true, TokenColor.BLUE);
+    /**
+     * Computer opponent of Player Vs Computer games, shared by every game
+     */
+    static final Player COMPUTER_OPPONENT =
+            new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.BLUE);
 
     /**
      * Constructs a default ConnectFourInitializer
@@ -43,8 +56,22 @@ public class ConnectFourInitializer {
      * @throws InvalidDimensionException when the grid dimensions are invalid
      */
     public ConnectFourGame initializePlayerVsPlayer(int height, int width, String name1, String name2) {
-        checkGridDimensions(height, width);
-        GameGrid gameGrid = new GameGrid(height, width);
+        return initializePlayerVsPlayer(height, width, GameConstants.DEFAULT_WIN_LENGTH, name1, name2);
+    }
+
+    /**
+     * Constructs a new ConnectFourGame for Player Vs Player mode with custom grid dimensions and win length
+     * @param height Height of the grid
+     * @param width Width of the grid
+     * @param winLength Number of consecutive tokens needed to win
+     * @param name1 Name of the first player
+     * @param name2 Name of the second player
+     * @return an instance of ConnectFourGame initialized with the input values
+     * @throws InvalidDimensionException when the grid dimensions or the win length are invalid
+     */
+    public ConnectFourGame initializePlayerVsPlayer(int height, int width, int winLength, String name1, String name2) {
+        checkGridDimensions(height, width, winLength);
+        GameGrid gameGrid = new GameGrid(height, width, winLength);
         Player player1 = new Player(PlayerID.PLAYER_1, name1, false, TokenColor.RED);
         Player player2 = new Player(PlayerID.PLAYER_2, name2, false, TokenColor.BLUE);
         return new ConnectFourGame(gameGrid, GameMode.PLAYER_VS_PLAYER, player1, player2);
@@ -58,8 +85,7 @@ public class ConnectFourInitializer {
     public ConnectFourGame initializeDefaultPlayerVsComputer(String name) {
         GameGrid gameGrid = new GameGrid(GameConstants.DEFAULT_HEIGHT, GameConstants.DEFAULT_WIDTH);
         Player player1 = new Player(PlayerID.PLAYER_1, name, false, TokenColor.RED);
-        Player player2 = new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.BLUE);
-        return new ConnectFourGame(gameGrid, GameMode.PLAYER_VS_COMPUTER, player1, player2);
+        return new ConnectFourGame(gameGrid, GameMode.PLAYER_VS_COMPUTER, player1, COMPUTER_OPPONENT);
     }
 
     /**
@@ -71,11 +97,23 @@ public class ConnectFourInitializer {
      * @throws InvalidDimensionException when the grid dimensions are invalid
      */
     public ConnectFourGame initializePlayerVsComputer(int height, int width, String name1) {
-        checkGridDimensions(height, width);
-        GameGrid gameGrid = new GameGrid(height, width);
+        return initializePlayerVsComputer(height, width, GameConstants.DEFAULT_WIN_LENGTH, name1);
+    }
+
+    /**
+     * Constructs a new ConnectFourGame for Player Vs Computer mode with custom grid dimensions and win length
+     * @param height Height of the grid
+     * @param width Width of the grid
+     * @param winLength Number of consecutive tokens needed to win
+     * @param name1 Name of the human player
+     * @return an instance of ConnectFourGame initialized with the input values
+     * @throws InvalidDimensionException when the grid dimensions or the win length are invalid
+     */
+    public ConnectFourGame initializePlayerVsComputer(int height, int width, int winLength, String name1) {
+        checkGridDimensions(height, width, winLength);
+        GameGrid gameGrid = new GameGrid(height, width, winLength);
         Player player1 = new Player(PlayerID.PLAYER_1, name1, false, TokenColor.RED);
-        Player player2 = new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.BLUE);
-        return new ConnectFourGame(gameGrid, GameMode.PLAYER_VS_COMPUTER, player1, player2);
+        return new ConnectFourGame(gameGrid, GameMode.PLAYER_VS_COMPUTER, player1, COMPUTER_OPPONENT);
     }
 
     /**
@@ -84,9 +122,7 @@ public class ConnectFourInitializer {
      */
     public ConnectFourGame initializeDefaultComputerVsComputer() {
         GameGrid gameGrid = new GameGrid(GameConstants.DEFAULT_HEIGHT, GameConstants.DEFAULT_WIDTH);
-        Player player1 = new Player(PlayerID.PLAYER_1, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.RED);
-        Player player2 = new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER2, true, TokenColor.BLUE);
-        return new ConnectFourGame(gameGrid, GameMode.COMPUTER_VS_COMPUTER, player1, player2);
+        return new ConnectFourGame(gameGrid, GameMode.COMPUTER_VS_COMPUTER, COMPUTER1, COMPUTER2);
     }
 
     /**
@@ -97,25 +133,40 @@ public class ConnectFourInitializer {
      * @throws InvalidDimensionException when the grid dimensions are invalid
      */
     public ConnectFourGame initializeComputerVsComputer(int height, int width) {
-        checkGridDimensions(height, width);
-        GameGrid gameGrid = new GameGrid(height, width);
-        Player player1 = new Player(PlayerID.PLAYER_1, GameConstants.DEFAULT_COMPUTER1, true, TokenColor.RED);
-        Player player2 = new Player(PlayerID.PLAYER_2, GameConstants.DEFAULT_COMPUTER2, true, TokenColor.BLUE);
-        return new ConnectFourGame(gameGrid, GameMode.COMPUTER_VS_COMPUTER, player1, player2);
+        return initializeComputerVsComputer(height, width, GameConstants.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Constructs a new ConnectFourGame for Computer Vs Computer mode with custom grid dimensions and win length
+     * @param height Height of the grid
+     * @param width Width of the grid
+     * @param winLength Number of consecutive tokens needed to win
+     * @return an instance of ConnectFourGame initialized with the input values
+     * @throws InvalidDimensionException when the grid dimensions or the win length are invalid
+     */
+    public ConnectFourGame initializeComputerVsComputer(int height, int width, int winLength) {
+        checkGridDimensions(height, width, winLength);
+        GameGrid gameGrid = new GameGrid(height, width, winLength);
+        return new ConnectFourGame(gameGrid, GameMode.COMPUTER_VS_COMPUTER, COMPUTER1, COMPUTER2);
     }
 
     /**
-     * Checks whether the grid dimensions are valid or not
+     * Checks whether the grid dimensions are valid or not. Both dimensions should be at least the win length.
+     * The same checks guard the games handed out by a {@link ConnectFourGamePool} and the decoded positions.
      * @param height Height of the grid
      * @param width Width of the grid
-     * @throws InvalidDimensionException if the grid dimensions are invalid
+     * @param winLength Number of consecutive tokens needed to win
+     * @throws InvalidDimensionException if the grid dimensions or the win length are invalid
      */
-    private void checkGridDimensions(int height, int width) {
-        if(height < 4 && width < 4)
-            throw new InvalidDimensionException("Entered height and width are invalid! They should be >= 4.");
-        if(height < 4)
-            throw new InvalidDimensionException("Entered height is invalid! It should be >= 4.");
-        if(width < 4)
-            throw new InvalidDimensionException("Entered width is invalid! It should be >= 4.");
+    public static void checkGridDimensions(int height, int width, int winLength) {
+        if(winLength < GameConstants.MIN_WIN_LENGTH)
+            throw new InvalidDimensionException("Entered win length is invalid! It should be >= " +
+                    GameConstants.MIN_WIN_LENGTH + ".");
+        if(height < winLength && width < winLength)
+            throw new InvalidDimensionException("Entered height and width are invalid! They should be >= " + winLength + ".");
+        if(height < winLength)
+            throw new InvalidDimensionException("Entered height is invalid! It should be >= " + winLength + ".");
+        if(width < winLength)
+            throw new InvalidDimensionException("Entered width is invalid! It should be >= " + winLength + ".");
     }
 }
@@ -0,0 +1,119 @@
+package org.game.connect4.analysis;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * AnalysisResult holds the aggregates of a run of the {@link RecordAnalyzer}, one {@link BoardStats} per board size.
+ */
+public final class AnalysisResult {
+    /**
+     * Aggregates by board size, sorted by height, width and win length
+     */
+    private final List<BoardStats> boards;
+    /**
+     * Number of replayed records
+     */
+    private final long records;
+    /**
+     * Number of records which could not be replayed
+     */
+    private final long malformed;
+    /**
+     * Number of bytes read
+     */
+    private final long bytes;
+    /**
+     * Wall-clock time of the analysis in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs an AnalysisResult
+     * @param boards aggregates by board size, sorted by height, width and win length
+     * @param records number of replayed records
+     * @param malformed number of records which could not be replayed
+     * @param bytes number of bytes read
+     * @param elapsedNanos wall-clock time of the analysis in nanoseconds
+     */
+    AnalysisResult(List<BoardStats> boards, long records, long malformed, long bytes, long elapsedNanos) {
+        this.boards = List.copyOf(boards);
+        this.records = records;
+        this.malformed = malformed;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the aggregates by board size
+     * @return an immutable list sorted by height, width and win length
+     */
+    public List<BoardStats> getBoards() {
+        return boards;
+    }
+
+    /**
+     * Get the aggregates of a board size
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param winLength the number of consecutive tokens needed to win
+     * @return the aggregates, or null if no record of this board size has been replayed
+     */
+    public BoardStats getBoard(int height, int width, int winLength) {
+        for (BoardStats board : boards) {
+            if (board.getHeight() == height && board.getWidth() == width && board.getWinLength() == winLength)
+                return board;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of replayed records
+     * @return number of records
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Get the number of records which could not be replayed, because their header or a move is invalid,
+     * a move follows the end of the game or the file ends in the middle of the record
+     * @return number of malformed records
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Get the number of bytes read
+     * @return number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the wall-clock time of the analysis
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the analysis speed
+     * @return records replayed per second
+     */
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : records * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                "records=%d malformed=%d bytes=%d recordsPerSecond=%.0f", records, malformed, bytes, getRecordsPerSecond()));
+        for (BoardStats board : boards)
+            text.append(System.lineSeparator()).append(board);
+        return text.toString();
+    }
+}
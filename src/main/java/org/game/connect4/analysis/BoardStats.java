@@ -0,0 +1,252 @@
+package org.game.connect4.analysis;
+
+import java.util.Locale;
+
+/**
+ * BoardStats aggregates the replayed records of one board size: grid height, width and win length.
+ * Besides the outcomes, it counts the openings, that is the first moves of the games which have at least
+ * the number of opening plies of the analysis. An opening and its mirror image are counted together
+ * under the smaller of their keys, see {@link #openingKey(int[], int, int)}.
+ */
+public final class BoardStats {
+    /**
+     * Height of the grid
+     */
+    private final int height;
+    /**
+     * Width of the grid
+     */
+    private final int width;
+    /**
+     * Number of consecutive tokens needed to win
+     */
+    private final int winLength;
+    /**
+     * Number of plies of an opening, 0 if the openings of this board size are not counted
+     */
+    private final int openingPlies;
+    /**
+     * Number of games by opening key
+     */
+    private final LongLongMap openings = new LongLongMap();
+    /**
+     * Number of replayed games
+     */
+    private long games;
+    /**
+     * Number of games won by the first player
+     */
+    private long player1Wins;
+    /**
+     * Number of games won by the second player
+     */
+    private long player2Wins;
+    /**
+     * Number of tied games
+     */
+    private long ties;
+    /**
+     * Number of moves over all games
+     */
+    private long totalMoves;
+
+    /**
+     * Constructs empty BoardStats
+     * @param height height of the grid
+     * @param width width of the grid
+     * @param winLength number of consecutive tokens needed to win
+     * @param openingPlies number of plies of an opening, reduced to 0 when the openings of the grid do not fit into a long key
+     */
+    BoardStats(int height, int width, int winLength, int openingPlies) {
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
+        this.openingPlies = fitsKey(width, openingPlies) ? openingPlies : 0;
+    }
+
+    /**
+     * Check whether every opening of a grid fits into a long key
+     * @param width the width of the grid
+     * @param plies the number of plies of an opening
+     * @return true if width to the power of plies fits into a long
+     */
+    private static boolean fitsKey(int width, int plies) {
+        long count = 1;
+        for (int i = 0; i < plies; i++) {
+            if (count > Long.MAX_VALUE / width)
+                return false;
+            count *= width;
+        }
+        return true;
+    }
+
+    /**
+     * Count a replayed game
+     * @param winner the ordinal of the color of the winner, or -1 if nobody has won
+     * @param moves number of moves of the game
+     * @param opening the opening key of the game, or -1 if the game is shorter than an opening
+     */
+    void record(int winner, int moves, long opening) {
+        games++;
+        totalMoves += moves;
+        if (winner == 0)
+            player1Wins++;
+        else if (winner == 1)
+            player2Wins++;
+        else if (moves == height * width)
+            ties++;
+        if (opening >= 0)
+            openings.add(opening, 1);
+    }
+
+    /**
+     * Add the counts of other stats of the same board size
+     * @param other the other stats
+     */
+    void merge(BoardStats other) {
+        games += other.games;
+        player1Wins += other.player1Wins;
+        player2Wins += other.player2Wins;
+        ties += other.ties;
+        totalMoves += other.totalMoves;
+        openings.addAll(other.openings);
+    }
+
+    /**
+     * Get the key of the opening of a game, the first moves read as the digits of a number in base width,
+     * or of its mirror image if that number is smaller
+     * @param moves the column indexes (starting from 0...) of the moves
+     * @param plies the number of plies of the opening
+     * @param width the width of the grid
+     * @return the opening key
+     */
+    public static long openingKey(int[] moves, int plies, int width) {
+        long key = 0;
+        long mirrored = 0;
+        for (int i = 0; i < plies; i++) {
+            key = key * width + moves[i];
+            mirrored = mirrored * width + (width - 1 - moves[i]);
+        }
+        return Math.min(key, mirrored);
+    }
+
+    /**
+     * Get the moves of an opening key
+     * @param key the opening key
+     * @param plies the number of plies of the opening
+     * @param width the width of the grid
+     * @param moves the buffer receiving the column indexes (starting from 0...), it must hold at least plies entries
+     */
+    public static void openingMoves(long key, int plies, int width, int[] moves) {
+        for (int i = plies - 1; i >= 0; i--) {
+            moves[i] = (int) (key % width);
+            key /= width;
+        }
+    }
+
+    /**
+     * Get the height of the grid
+     * @return height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of the grid
+     * @return width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of consecutive tokens needed to win
+     * @return win length of the grid
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Get the number of plies of an opening
+     * @return number of plies, 0 if the openings of this board size are not counted
+     */
+    public int getOpeningPlies() {
+        return openingPlies;
+    }
+
+    /**
+     * Get the number of games by opening key
+     * @return the counts of the openings, which must not be changed
+     */
+    public LongLongMap getOpenings() {
+        return openings;
+    }
+
+    /**
+     * Get the number of replayed games
+     * @return number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Get the number of games won by the first player
+     * @return number of wins of the first player
+     */
+    public long getPlayer1Wins() {
+        return player1Wins;
+    }
+
+    /**
+     * Get the number of games won by the second player
+     * @return number of wins of the second player
+     */
+    public long getPlayer2Wins() {
+        return player2Wins;
+    }
+
+    /**
+     * Get the number of tied games
+     * @return number of ties
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Get the number of games recorded before they were over
+     * @return number of unfinished games
+     */
+    public long getUnfinished() {
+        return games - player1Wins - player2Wins - ties;
+    }
+
+    /**
+     * Get the number of moves over all games
+     * @return number of moves
+     */
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /**
+     * Get the advantage of the first player over the finished games
+     * @return the wins of the first player minus the wins of the second one, divided by the finished games,
+     *         between -1 and 1
+     */
+    public double getFirstPlayerAdvantage() {
+        long finished = player1Wins + player2Wins + ties;
+        return finished == 0 ? 0.0 : (double) (player1Wins - player2Wins) / finished;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%dx%d connect %d: games=%d p1=%d p2=%d ties=%d unfinished=%d "
+                        + "avg moves=%.2f first player advantage=%+.4f openings=%d",
+                height, width, winLength, games, player1Wins, player2Wins, ties, getUnfinished(),
+                games == 0 ? 0.0 : (double) totalMoves / games, getFirstPlayerAdvantage(), openings.size());
+    }
+}
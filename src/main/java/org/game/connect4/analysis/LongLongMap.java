@@ -0,0 +1,185 @@
+package org.game.connect4.analysis;
+
+/**
+ * LongLongMap counts long values by long keys in open-addressing arrays, with neither boxing nor entry objects.
+ * Keys are placed by linear probing from a mixed hash of the key, and the arrays double once they are
+ * three quarters full. Key 0 marks the free slots, so its value is kept aside. A map is not thread-safe.
+ */
+public final class LongLongMap {
+    /**
+     * Visitor of the entries of a map
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Visit an entry
+         * @param key the key of the entry
+         * @param value the value of the entry
+         */
+        void visit(long key, long value);
+    }
+
+    /**
+     * Keys of the slots, 0 for a free slot
+     */
+    private long[] keys;
+    /**
+     * Values of the slots
+     */
+    private long[] values;
+    /**
+     * Number of keys in the slots
+     */
+    private int size;
+    /**
+     * Whether key 0 is in the map
+     */
+    private boolean hasZero;
+    /**
+     * Value of key 0
+     */
+    private long zeroValue;
+
+    /**
+     * Constructs an empty LongLongMap
+     */
+    public LongLongMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty LongLongMap holding a number of keys before growing
+     * @param expected the expected number of keys
+     */
+    public LongLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 4 / 3) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Get the value of a key
+     * @param key the key
+     * @return the value, or 0 if the key is not in the map
+     */
+    public long get(long key) {
+        if (key == 0)
+            return zeroValue;
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = slot + 1 & mask) {
+            if (keys[slot] == key)
+                return values[slot];
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether a key is in the map
+     * @param key the key
+     * @return true if the key has been added
+     */
+    public boolean containsKey(long key) {
+        if (key == 0)
+            return hasZero;
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = slot + 1 & mask) {
+            if (keys[slot] == key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add a delta to the value of a key, which starts at 0 when the key is not in the map
+     * @param key the key
+     * @param delta the delta to add
+     * @return the new value of the key
+     */
+    public long add(long key, long delta) {
+        if (key == 0) {
+            hasZero = true;
+            return zeroValue += delta;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key)
+                return values[slot] += delta;
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > keys.length / 4 * 3)
+            grow();
+        return delta;
+    }
+
+    /**
+     * Set the value of a key
+     * @param key the key
+     * @param value the value
+     */
+    public void put(long key, long value) {
+        add(key, value - get(key));
+    }
+
+    /**
+     * Add every entry of another map to this one
+     * @param other the other map
+     */
+    public void addAll(LongLongMap other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Get the number of keys in the map
+     * @return number of keys
+     */
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * Visit every entry of the map, in no particular order
+     * @param visitor the visitor
+     */
+    public void forEach(Visitor visitor) {
+        if (hasZero)
+            visitor.visit(0, zeroValue);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0)
+                visitor.visit(keys[slot], values[slot]);
+        }
+    }
+
+    /**
+     * Double the slots and place the keys again
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0)
+                continue;
+            int slot = slot(oldKeys[i], mask);
+            while (keys[slot] != 0)
+                slot = slot + 1 & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Get the first slot probed for a key
+     * @param key the key
+     * @param mask the number of slots - 1
+     * @return the index of the slot
+     */
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+}
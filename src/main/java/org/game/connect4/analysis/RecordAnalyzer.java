@@ -0,0 +1,399 @@
+package org.game.connect4.analysis;
+
+import org.game.connect4.codec.GameRecordCodec;
+import org.game.connect4.codec.GameRecordReader;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.util.GameConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RecordAnalyzer replays archived games and aggregates their outcomes, lengths and openings by board size.
+ * <br/>
+ * A record file holds records written back to back by {@link GameRecordCodec#encode}. Each file is memory-mapped
+ * in windows; the calling thread cuts every window into chunks of whole records, from the record headers alone,
+ * and hands the chunks to a pool of workers. A worker replays the moves of the records of a chunk on a bitboard
+ * it keeps for each board size, undoing them afterwards, and counts the games into its own {@link BoardStats},
+ * which are merged once every file is read. The number of chunks in flight is bounded, so the memory held does
+ * not depend on the size of the files, and the aggregates only grow with the number of board sizes and distinct openings.
+ * <br/>
+ * Usage from the command line: {@code RecordAnalyzer file...}
+ */
+public class RecordAnalyzer {
+    /**
+     * Default number of bytes of a mapped window
+     */
+    public static final int DEFAULT_WINDOW_BYTES = 64 << 20;
+    /**
+     * Default number of plies of an opening
+     */
+    public static final int DEFAULT_OPENING_PLIES = 4;
+    /**
+     * Largest number of slots of a replayed grid, records of larger grids are counted as malformed
+     */
+    public static final int MAX_SLOTS = 1 << 20;
+    /**
+     * Number of bytes after which a chunk is handed to the workers
+     */
+    private static final int CHUNK_BYTES = 1 << 20;
+    /**
+     * Smallest number of bytes of a window, enough for the header of any record
+     */
+    private static final int MIN_WINDOW_BYTES = 64;
+
+    /**
+     * Number of workers replaying chunks in parallel
+     */
+    private final int threads;
+    /**
+     * Number of plies of an opening
+     */
+    private final int openingPlies;
+    /**
+     * Number of bytes of a mapped window
+     */
+    private final int windowBytes;
+
+    /**
+     * Constructs a RecordAnalyzer with the default window size and opening length
+     * @param threads number of workers replaying chunks in parallel
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public RecordAnalyzer(int threads) {
+        this(threads, DEFAULT_OPENING_PLIES, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * Constructs a RecordAnalyzer
+     * @param threads number of workers replaying chunks in parallel
+     * @param openingPlies number of plies of an opening, or 0 to not count the openings
+     * @param windowBytes number of bytes of a mapped window, a record larger than a window is mapped on its own
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RecordAnalyzer(int threads, int openingPlies, int windowBytes) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads should be > 0.");
+        if (openingPlies < 0)
+            throw new IllegalArgumentException("Number of opening plies should be >= 0.");
+        if (windowBytes < MIN_WINDOW_BYTES)
+            throw new IllegalArgumentException("Window size should be >= " + MIN_WINDOW_BYTES + ".");
+        this.threads = threads;
+        this.openingPlies = openingPlies;
+        this.windowBytes = windowBytes;
+    }
+
+    /**
+     * Replay every record of some files
+     * @param paths the paths of the record files
+     * @return the aggregates of the records
+     * @throws UncheckedIOException if a file can not be read
+     */
+    public AnalysisResult analyze(List<Path> paths) {
+        long start = System.nanoTime();
+        Run run = new Run();
+        try {
+            for (Path path : paths) {
+                if (run.failure.get() != null)
+                    break;
+                run.read(path);
+            }
+            run.inFlight.acquire(2 * threads);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The analysis has been interrupted.", e);
+        }
+        finally {
+            run.pool.shutdown();
+        }
+        if (run.failure.get() != null)
+            throw run.failure.get();
+        return merge(run.workers, run.truncated, run.bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Merge the aggregates of the workers
+     * @param workers the workers
+     * @param truncated number of malformed records found while cutting the files into chunks
+     * @param bytes number of bytes read
+     * @param elapsedNanos wall-clock time of the analysis in nanoseconds
+     * @return the result of the analysis
+     */
+    private AnalysisResult merge(List<Worker> workers, long truncated, long bytes, long elapsedNanos) {
+        LongLongMap index = new LongLongMap();
+        List<BoardStats> boards = new ArrayList<>();
+        long records = 0;
+        long malformed = truncated;
+        for (Worker worker : workers) {
+            records += worker.records;
+            malformed += worker.malformed;
+            for (BoardStats stats : worker.boards) {
+                long key = sizeKey(stats.getHeight(), stats.getWidth(), stats.getWinLength());
+                if (!index.containsKey(key)) {
+                    index.put(key, boards.size());
+                    boards.add(new BoardStats(stats.getHeight(), stats.getWidth(), stats.getWinLength(), openingPlies));
+                }
+                boards.get((int) index.get(key)).merge(stats);
+            }
+        }
+        boards.sort(Comparator.comparingInt(BoardStats::getHeight).thenComparingInt(BoardStats::getWidth)
+                .thenComparingInt(BoardStats::getWinLength));
+        return new AnalysisResult(boards, records, malformed, bytes, elapsedNanos);
+    }
+
+    /**
+     * Get the key of a board size, valid for grids of at most {@link #MAX_SLOTS} slots
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param winLength the number of consecutive tokens needed to win
+     * @return the key
+     */
+    private static long sizeKey(int height, int width, int winLength) {
+        return (long) winLength << 42 | (long) height << 21 | width;
+    }
+
+    /**
+     * Run holds the state of one analysis: the workers, the pool running them and the bound on the chunks in flight.
+     */
+    private final class Run {
+        /**
+         * Every worker of the run
+         */
+        private final List<Worker> workers = new ArrayList<>(threads);
+        /**
+         * Workers waiting for a chunk
+         */
+        private final BlockingQueue<Worker> idle = new ArrayBlockingQueue<>(threads);
+        /**
+         * Permits of the chunks in flight, twice as many as workers keeps them busy while the next window is cut
+         */
+        private final Semaphore inFlight = new Semaphore(2 * threads);
+        /**
+         * First failure of a worker
+         */
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        /**
+         * Pool running the workers
+         */
+        private final ForkJoinPool pool = new ForkJoinPool(threads);
+        /**
+         * Number of bytes handed to the workers
+         */
+        private long bytes;
+        /**
+         * Number of malformed records found while cutting the files into chunks
+         */
+        private long truncated;
+
+        /**
+         * Constructs a Run
+         */
+        Run() {
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker();
+                workers.add(worker);
+                idle.add(worker);
+            }
+        }
+
+        /**
+         * Cut a file into chunks and hand them to the workers. The rest of a file is skipped after a malformed
+         * record header, since the records can not be told apart anymore, and a record cut by the end of the file
+         * is not read; each case counts one malformed record.
+         * @param path the path of the record file
+         * @throws InterruptedException if the thread is interrupted while waiting for a permit
+         * @throws UncheckedIOException if the file can not be read
+         */
+        void read(Path path) throws InterruptedException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long offset = 0;
+                while (offset < size && failure.get() == null) {
+                    int length = (int) Math.min(windowBytes, size - offset);
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    int chunkStart = 0;
+                    int end = 0;
+                    boolean malformed = false;
+                    try {
+                        int record;
+                        while ((record = GameRecordReader.recordSize(window, end)) >= 0 && record <= length - end) {
+                            end += record;
+                            if (end - chunkStart >= CHUNK_BYTES) {
+                                submit(window.slice(chunkStart, end - chunkStart));
+                                chunkStart = end;
+                            }
+                        }
+                        if (end == 0 && record > length && offset + record <= size) {
+                            /* a record larger than a window is mapped on its own */
+                            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, record);
+                            end = record;
+                        }
+                    }
+                    catch (IllegalArgumentException e) {
+                        malformed = true;
+                    }
+                    if (end > chunkStart)
+                        submit(window.slice(chunkStart, end - chunkStart));
+                    if (malformed || end == 0) {
+                        truncated++;
+                        break;
+                    }
+                    offset += end;
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("The record file " + path + " can not be read.", e);
+            }
+        }
+
+        /**
+         * Hand a chunk to an idle worker, waiting while too many chunks are in flight
+         * @param chunk the chunk, holding whole records
+         * @throws InterruptedException if the thread is interrupted while waiting for a permit
+         */
+        private void submit(ByteBuffer chunk) throws InterruptedException {
+            inFlight.acquire();
+            bytes += chunk.remaining();
+            pool.execute(() -> {
+                Worker worker = idle.remove();
+                try {
+                    worker.process(chunk);
+                }
+                catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+                finally {
+                    idle.add(worker);
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Worker replays the records of chunks and keeps the aggregates and bitboards of the board sizes it has met.
+     */
+    private final class Worker {
+        /**
+         * Cursor over the records of a chunk
+         */
+        private final GameRecordReader reader = new GameRecordReader();
+        /**
+         * Index into the boards and bitboards by board size key
+         */
+        private final LongLongMap index = new LongLongMap();
+        /**
+         * Aggregates by board size
+         */
+        private final List<BoardStats> boards = new ArrayList<>();
+        /**
+         * Empty bitboards by board size
+         */
+        private final List<Bitboard> bitboards = new ArrayList<>();
+        /**
+         * Moves of the opening of the current record
+         */
+        private final int[] opening = new int[openingPlies];
+        /**
+         * Number of replayed records
+         */
+        private long records;
+        /**
+         * Number of records which could not be replayed
+         */
+        private long malformed;
+
+        /**
+         * Replay every record of a chunk
+         * @param chunk the chunk, holding whole records
+         */
+        void process(ByteBuffer chunk) {
+            while (chunk.hasRemaining()) {
+                try {
+                    reader.next(chunk);
+                }
+                catch (IllegalArgumentException e) {
+                    malformed++;
+                    continue;
+                }
+                int height = reader.getHeight();
+                int width = reader.getWidth();
+                int winLength = reader.getWinLength();
+                if (winLength < GameConstants.MIN_WIN_LENGTH || height < winLength || width < winLength
+                        || (long) height * width > MAX_SLOTS) {
+                    malformed++;
+                    continue;
+                }
+                long key = sizeKey(height, width, winLength);
+                if (!index.containsKey(key)) {
+                    index.put(key, boards.size());
+                    boards.add(new BoardStats(height, width, winLength, openingPlies));
+                    bitboards.add(Bitboard.create(height, width, winLength));
+                }
+                int slot = (int) index.get(key);
+                replay(bitboards.get(slot), boards.get(slot));
+            }
+        }
+
+        /**
+         * Replay the moves of the current record on an empty bitboard, count the game and empty the bitboard again
+         * @param board an empty bitboard of the board size of the record
+         * @param stats the aggregates of the board size
+         */
+        private void replay(Bitboard board, BoardStats stats) {
+            int moves = reader.getMoveCount();
+            int winner = -1;
+            int played = 0;
+            while (played < moves) {
+                int column = reader.getMove(played);
+                if (winner >= 0 || !board.canPlay(column))
+                    break;
+                board.play(column, played & 1);
+                if (board.isWinAt(column))
+                    winner = played & 1;
+                played++;
+            }
+            for (int i = played - 1; i >= 0; i--)
+                board.undo(reader.getMove(i));
+            if (played < moves) {
+                malformed++;
+                return;
+            }
+            long openingKey = -1;
+            int plies = stats.getOpeningPlies();
+            if (plies > 0 && moves >= plies) {
+                for (int i = 0; i < plies; i++)
+                    opening[i] = reader.getMove(i);
+                openingKey = BoardStats.openingKey(opening, plies, stats.getWidth());
+            }
+            stats.record(winner, moves, openingKey);
+            records++;
+        }
+    }
+
+    /**
+     * Analyse record files from the command line and print the aggregates once they are read
+     * @param args the paths of the record files
+     */
+    public static void main(String[] args) {
+        List<Path> paths = new ArrayList<>();
+        for (String arg : args)
+            paths.add(Path.of(arg));
+        RecordAnalyzer analyzer = new RecordAnalyzer(Runtime.getRuntime().availableProcessors());
+        System.out.println(analyzer.analyze(paths));
+    }
+}
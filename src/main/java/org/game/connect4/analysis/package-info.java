@@ -0,0 +1,4 @@
+/**
+ * The package includes the bulk analysis of archived game records and its primitive aggregates.
+ */
+package org.game.connect4.analysis;
@@ -0,0 +1,52 @@
+package org.game.connect4.book;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.engine.MoveEngine;
+import org.game.connect4.engine.SearchResult;
+
+/**
+ * BookMoveEngine plays the moves of an {@link OpeningBook} while the game is in the book,
+ * and searches with another engine once it is out of it.
+ */
+public class BookMoveEngine implements MoveEngine {
+    /**
+     * Book of opening moves
+     */
+    private final OpeningBook book;
+    /**
+     * Engine searching the positions out of the book
+     */
+    private final MoveEngine engine;
+
+    /**
+     * Constructs a BookMoveEngine
+     * @param book book of opening moves
+     * @param engine engine searching the positions out of the book
+     */
+    public BookMoveEngine(OpeningBook book, MoveEngine engine) {
+        this.book = book;
+        this.engine = engine;
+    }
+
+    /**
+     * Get the opening book
+     * @return book of opening moves
+     */
+    public OpeningBook getBook() {
+        return book;
+    }
+
+    /**
+     * Get the engine searching the positions out of the book
+     * @return the search engine
+     */
+    public MoveEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        SearchResult result = book.lookup(game);
+        return result != null ? result : engine.search(game);
+    }
+}
@@ -0,0 +1,182 @@
+package org.game.connect4.book;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.codec.PositionCodec;
+import org.game.connect4.engine.SearchResult;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.model.LongBitboard;
+import org.game.connect4.util.GameConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OpeningBook looks up the best moves of opening positions in a book file written by {@link OpeningBookGenerator}.
+ * <br/>
+ * The file starts with a header of {@link #HEADER_BYTES} bytes: a magic number, the format version, the grid height
+ * and width, the number of plies and the search depth of the book, and the number of entries.
+ * Then come the entries of {@link #ENTRY_BYTES} bytes, sorted by key: the canonical key of a position
+ * (see {@link PositionCodec#toCanonicalKey(Bitboard)}), its score, its search depth and its best column
+ * as seen from the canonical orientation. A position and its mirror image share one entry.
+ * <br/>
+ * The file is memory-mapped and looked up by binary search, without reading it into the heap.
+ * A book can be shared between threads.
+ */
+public class OpeningBook {
+    /**
+     * Magic number starting a book file
+     */
+    static final int MAGIC = 0x43344F42;
+    /**
+     * Version of the book format
+     */
+    static final int VERSION = 1;
+    /**
+     * Size of the header in bytes
+     */
+    static final int HEADER_BYTES = 32;
+    /**
+     * Size of an entry in bytes
+     */
+    static final int ENTRY_BYTES = 16;
+
+    /**
+     * Mapped book file
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * Height of the grid of the book
+     */
+    private final int height;
+    /**
+     * Width of the grid of the book
+     */
+    private final int width;
+    /**
+     * Number of plies covered by the book
+     */
+    private final int plies;
+    /**
+     * Depth of the searches of the book
+     */
+    private final int depth;
+    /**
+     * Number of entries
+     */
+    private final int size;
+
+    /**
+     * Opens a book file
+     * @param path the path of the book file
+     * @throws UncheckedIOException if the file can not be read
+     * @throws IllegalArgumentException if the file is not a book
+     */
+    public OpeningBook(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The opening book " + path + " can not be read.", e);
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException(path + " is not an opening book.");
+        this.height = buffer.getInt(8);
+        this.width = buffer.getInt(12);
+        this.plies = buffer.getInt(16);
+        this.depth = buffer.getInt(20);
+        long entries = buffer.getLong(24);
+        if (entries < 0 || HEADER_BYTES + entries * ENTRY_BYTES != buffer.capacity())
+            throw new IllegalArgumentException("The opening book " + path + " is truncated.");
+        this.size = (int) entries;
+    }
+
+    /**
+     * Look the position of a game up
+     * @param game the game
+     * @return the best move, score and search depth of the position for the current player,
+     *         or null if the position is not in the book
+     */
+    public SearchResult lookup(ConnectFourGame game) {
+        long start = System.nanoTime();
+        Bitboard board = game.getGameGrid().getBitboard();
+        if (board.getHeight() != height || board.getWidth() != width || board.getMoveCount() >= plies
+                || board.getWinLength() != GameConstants.DEFAULT_WIN_LENGTH || !LongBitboard.fits(height, width))
+            return null;
+        long key = PositionCodec.toKey(board);
+        long mirrored = PositionCodec.mirror(key, height, width);
+        int index = find(Math.min(key, mirrored));
+        if (index < 0)
+            return null;
+        int offset = HEADER_BYTES + index * ENTRY_BYTES;
+        int column = buffer.getShort(offset + 14);
+        if (mirrored < key)
+            column = width - 1 - column;
+        return new SearchResult(column + 1, buffer.getInt(offset + 8), buffer.getShort(offset + 12), 0,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Find the entry of a key by binary search
+     * @param key the canonical key of a position
+     * @return the index of the entry, or -1 if the key is not in the book
+     */
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = buffer.getLong(HEADER_BYTES + middle * ENTRY_BYTES);
+            if (middleKey < key)
+                low = middle + 1;
+            else if (middleKey > key)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the height of the grid of the book
+     * @return height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of the grid of the book
+     * @return width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of plies covered by the book
+     * @return positions with fewer moves than this are in the book
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Get the depth of the searches of the book
+     * @return depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Get the number of entries
+     * @return number of positions in the book, counting a position and its mirror image once
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,194 @@
+package org.game.connect4.book;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.codec.PositionCodec;
+import org.game.connect4.engine.NegamaxEngine;
+import org.game.connect4.engine.SearchLimits;
+import org.game.connect4.engine.SearchResult;
+import org.game.connect4.engine.TranspositionTable;
+import org.game.connect4.model.GameGrid;
+import org.game.connect4.model.LongBitboard;
+import org.game.connect4.util.GameConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OpeningBookGenerator writes the opening book of the default grid, read by {@link OpeningBook}.
+ * <br/>
+ * Every position reachable in fewer than the given number of plies, which is not already won, is searched
+ * by a {@link NegamaxEngine} to the given depth. A position and its mirror image are searched once.
+ * The positions are split across a pool of workers, each with its own engine and transposition table.
+ * <br/>
+ * Usage from the command line: {@code OpeningBookGenerator [file] [plies] [depth] [threads]}
+ */
+public class OpeningBookGenerator {
+    /**
+     * Size of the transposition table of every worker in megabytes
+     */
+    private static final int TABLE_MEGABYTES = 64;
+
+    /**
+     * Number of plies covered by the book
+     */
+    private final int plies;
+    /**
+     * Budgets of the search of every position
+     */
+    private final SearchLimits limits;
+    /**
+     * Number of workers searching positions in parallel
+     */
+    private final int threads;
+
+    /**
+     * Constructs an OpeningBookGenerator
+     * @param plies positions with fewer moves than this are put in the book
+     * @param limits budgets of the search of every position
+     * @param threads number of workers searching positions in parallel
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public OpeningBookGenerator(int plies, SearchLimits limits, int threads) {
+        if (plies <= 0)
+            throw new IllegalArgumentException("Number of plies should be > 0.");
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads should be > 0.");
+        this.plies = plies;
+        this.limits = limits;
+        this.threads = threads;
+    }
+
+    /**
+     * Search the positions of the book and write it
+     * @param path the path of the book file, replaced if it exists
+     * @return the number of entries of the book
+     * @throws UncheckedIOException if the file can not be written
+     */
+    public int generate(Path path) {
+        int height = GameConstants.DEFAULT_HEIGHT;
+        int width = GameConstants.DEFAULT_WIDTH;
+        Set<Long> positions = new HashSet<>();
+        collect(new LongBitboard(height, width), positions);
+        long[] keys = new long[positions.size()];
+        int count = 0;
+        for (long key : positions)
+            keys[count++] = key;
+        Arrays.sort(keys);
+
+        SearchResult[] results = search(keys, height, width);
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + keys.length * OpeningBook.ENTRY_BYTES);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(height).putInt(width)
+                .putInt(plies).putInt(limits.getMaxDepth() == Integer.MAX_VALUE ? 0 : limits.getMaxDepth())
+                .putLong(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            buffer.putLong(keys[i]).putInt(results[i].getScore()).putShort((short) results[i].getDepth())
+                    .putShort((short) (results[i].getBestMove() - 1));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The opening book " + path + " can not be written.", e);
+        }
+        return keys.length;
+    }
+
+    /**
+     * Collect the canonical keys of the positions reachable from a board which are not won
+     * @param board the board, moves are made and unmade in place
+     * @param positions the canonical keys collected so far
+     */
+    private void collect(LongBitboard board, Set<Long> positions) {
+        if (!positions.add(PositionCodec.toCanonicalKey(board)) || board.getMoveCount() + 1 >= plies)
+            return;
+        int color = board.getMoveCount() % 2;
+        for (int column = 0; column < board.getWidth(); column++) {
+            if (!board.canPlay(column))
+                continue;
+            board.play(column, color);
+            if (!board.isWinAt(column))
+                collect(board, positions);
+            board.undo(column);
+        }
+    }
+
+    /**
+     * Search the positions of the book in parallel
+     * @param keys the canonical keys of the positions
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return the search results by position
+     */
+    private SearchResult[] search(long[] keys, int height, int width) {
+        SearchResult[] results = new SearchResult[keys.length];
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(() -> {
+                NegamaxEngine engine = new NegamaxEngine(limits, TranspositionTable.ofMegabytes(TABLE_MEGABYTES));
+                ConnectFourGame template = new ConnectFourInitializer().initializeComputerVsComputer(height, width);
+                for (int index = next.getAndIncrement(); index < keys.length; index = next.getAndIncrement()) {
+                    GameGrid grid = new GameGrid(height, width);
+                    PositionCodec.fromKey(keys[index], grid);
+                    ConnectFourGame game = new ConnectFourGame(grid, template.getGameMode(),
+                            template.getPlayer1(), template.getPlayer2());
+                    if (grid.getMoveCount() % 2 == 1)
+                        game.switchPlayer();
+                    results[index] = engine.search(game);
+                }
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<Void> result : pool.invokeAll(workers))
+                result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The generation of the book has been interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Generate a book from the command line
+     * @param args optional file, plies, depth and threads
+     */
+    public static void main(String[] args) {
+        Path path = Paths.get(args.length > 0 ? args[0] : "connect4-book.bin");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        int entries = new OpeningBookGenerator(plies, SearchLimits.ofDepth(depth), threads).generate(path);
+        System.out.printf("%d positions written to %s in %.1fs%n", entries, path, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The package includes the opening book of the default Connect Four grid, its generator and its engine.
+ */
+package org.game.connect4.book;
@@ -0,0 +1,101 @@
+package org.game.connect4.cache;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.engine.MoveEngine;
+import org.game.connect4.engine.SearchResult;
+import org.game.connect4.model.Bitboard;
+
+/**
+ * CachingMoveEngine answers the searches of another engine from a {@link PositionCache} shared by every game,
+ * so that the hints asked for popular positions are only searched once. A position is keyed by its canonical key,
+ * mixed with the dimensions and win length of the grid and with the color to move, so a position and its mirror image
+ * share one entry, whose column is stored for the canonical orientation.
+ * A cached result reports no visited position; its depth and score are the ones of the search that filled the entry.
+ * The cache should only be shared by engines searching with the same settings.
+ */
+public class CachingMoveEngine implements MoveEngine {
+    /**
+     * Key XOR-ed into the position key when the second token color is to move
+     */
+    private static final long SIDE_KEY = 0x2545F4914F6CDD1DL;
+
+    /**
+     * Engine searching the positions out of the cache
+     */
+    private final MoveEngine engine;
+    /**
+     * Cache of the results
+     */
+    private final PositionCache cache;
+
+    /**
+     * Constructs a CachingMoveEngine
+     * @param engine engine searching the positions out of the cache
+     * @param cache cache of the results, which can be shared with other engines of the same settings
+     */
+    public CachingMoveEngine(MoveEngine engine, PositionCache cache) {
+        this.engine = engine;
+        this.cache = cache;
+    }
+
+    /**
+     * Get the engine searching the positions out of the cache
+     * @return the search engine
+     */
+    public MoveEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Get the cache of the results
+     * @return the cache
+     */
+    public PositionCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        long start = System.nanoTime();
+        Bitboard board = game.getGameGrid().getBitboard();
+        long key = keyOf(board, game.getCurrentPlayer().getTokenColor().ordinal());
+        boolean mirrored = board.isMirrored();
+        long entry = cache.get(key);
+        if (entry != PositionCache.NONE) {
+            int column = (int) (entry >>> 48) - 1;
+            if (mirrored)
+                column = board.getWidth() - 1 - column;
+            return new SearchResult(column + 1, (int) entry, (int) (entry >>> 32 & 0xFFFF), 0,
+                    System.nanoTime() - start);
+        }
+        SearchResult result = engine.search(game);
+        int column = result.getBestMove() - 1;
+        if (mirrored)
+            column = board.getWidth() - 1 - column;
+        cache.put(key, pack(column, result.getDepth(), result.getScore()));
+        return result;
+    }
+
+    /**
+     * Get the cache key of a position
+     * @param board the bitboard of the position
+     * @param color the ordinal of the token color to move
+     * @return the key
+     */
+    private static long keyOf(Bitboard board, int color) {
+        long dimensions = ((long) board.getWinLength() << 48 | (long) board.getHeight() << 32 | board.getWidth())
+                * 0xC2B2AE3D27D4EB4FL;
+        return board.getCanonicalKey() ^ dimensions ^ (color == 0 ? 0L : SIDE_KEY);
+    }
+
+    /**
+     * Pack a result into a cache value, never equal to {@link PositionCache#NONE}
+     * @param column the best column index (starting from 0...) in the canonical orientation
+     * @param depth the depth of the search, kept in 16 bits
+     * @param score the score of the best move
+     * @return the packed result: column + 1 in the top 16 bits, then the depth, then the score
+     */
+    private static long pack(int column, int depth, int score) {
+        return (long) (column + 1) << 48 | (long) (Math.min(depth, 0xFFFF) & 0xFFFF) << 32 | score & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,449 @@
+package org.game.connect4.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PositionCache is a concurrent, size-bounded map from 64 bit position keys to packed 64 bit results,
+ * evicting with a segmented LRU policy.
+ * <br/>
+ * A new key enters a probation segment; a key found again moves to a protected segment holding most of the capacity.
+ * When the protected segment overflows, its least recently used key goes back to probation, and a full cache
+ * evicts the least recently used key of probation first. Positions analysed once are thus evicted before the
+ * popular positions, which a plain LRU would flush whenever many positions are seen once.
+ * <br/>
+ * The keys are spread over a power of two of segments, each guarded by its own lock, so threads working on
+ * different keys rarely contend. A segment keeps its entries, its index and its two recency lists in primitive arrays
+ * allocated up front, so neither lookups nor insertions allocate. The hit, miss and eviction counters are shared.
+ */
+public class PositionCache {
+    /**
+     * Value returned by {@link #get(long)} when the key is not in the cache, which can not be stored
+     */
+    public static final long NONE = 0L;
+    /**
+     * Share of the capacity of a segment taken by its protected entries, in percent
+     */
+    private static final int PROTECTED_PERCENT = 80;
+
+    /**
+     * Segments of the cache, selected by the high bits of the mixed key
+     */
+    private final Segment[] segments;
+    /**
+     * Shift selecting a segment from the mixed key
+     */
+    private final int segmentShift;
+    /**
+     * Number of lookups which found the key
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Number of lookups which did not find the key
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * Number of entries evicted to make room for new ones
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a PositionCache with one segment per four processors' worth of threads
+     * @param capacity maximum number of entries
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public PositionCache(int capacity) {
+        this(capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a PositionCache
+     * @param capacity maximum number of entries, spread evenly over the segments
+     * @param concurrency expected number of threads using the cache, rounded up to a power of two of segments
+     *                    and reduced so that every segment holds at least 16 entries
+     * @throws IllegalArgumentException if the capacity or the concurrency is not positive
+     */
+    public PositionCache(int capacity, int concurrency) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity should be > 0.");
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("Concurrency should be > 0.");
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency * 2 - 1, capacity / 16)));
+        this.segments = new Segment[count];
+        this.segmentShift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+    }
+
+    /**
+     * Look a key up and mark it as recently used
+     * @param key the key
+     * @return the value of the key, or {@link #NONE} if the key is not in the cache
+     */
+    public long get(long key) {
+        long hash = mix(key);
+        long value = segmentFor(hash).get(key, hash);
+        if (value == NONE)
+            misses.increment();
+        else
+            hits.increment();
+        return value;
+    }
+
+    /**
+     * Store the value of a key, evicting the least valuable entry of its segment if the segment is full
+     * @param key the key
+     * @param value the value, which must not be {@link #NONE}
+     * @throws IllegalArgumentException if the value is {@link #NONE}
+     */
+    public void put(long key, long value) {
+        if (value == NONE)
+            throw new IllegalArgumentException("The value " + NONE + " can not be stored.");
+        long hash = mix(key);
+        if (segmentFor(hash).put(key, hash, value))
+            evictions.increment();
+    }
+
+    /**
+     * Remove every entry, the counters are kept
+     */
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * Get the number of entries
+     * @return number of entries, only approximate while the cache is changed by other threads
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size;
+        return size;
+    }
+
+    /**
+     * Get the maximum number of entries
+     * @return capacity of the cache
+     */
+    public int getCapacity() {
+        int capacity = 0;
+        for (Segment segment : segments)
+            capacity += segment.capacity;
+        return capacity;
+    }
+
+    /**
+     * Get the number of segments
+     * @return number of segments, each with its own lock
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Get the number of lookups which found the key
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups which did not find the key
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries evicted to make room for new ones
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the share of the lookups which found the key
+     * @return hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long found = hits.sum();
+        long lookups = found + misses.sum();
+        return lookups == 0 ? 0.0 : (double) found / lookups;
+    }
+
+    /**
+     * Get the segment of a key
+     * @param hash the mixed key
+     * @return the segment
+     */
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Mix the bits of a key, so that keys differing in a few bits land in different segments and slots
+     * @param key the key
+     * @return the mixed key
+     */
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ hash >>> 29;
+    }
+
+    /**
+     * Segment holds a share of the entries of the cache behind its own lock.
+     * Entries are slots of parallel arrays. Two circular doubly-linked lists, each closed by a sentinel slot,
+     * order the probation and the protected slots from the most to the least recently used.
+     * An open-addressing index with linear probing maps the keys to their slots.
+     */
+    private static final class Segment {
+        /**
+         * Sentinel slot of the probation list, at index capacity
+         */
+        private final int probation;
+        /**
+         * Sentinel slot of the protected list, at index capacity + 1
+         */
+        private final int protectedList;
+        /**
+         * Maximum number of entries
+         */
+        private final int capacity;
+        /**
+         * Maximum number of protected entries
+         */
+        private final int protectedCapacity;
+        /**
+         * Lock guarding the segment
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Keys of the slots
+         */
+        private final long[] keys;
+        /**
+         * Values of the slots
+         */
+        private final long[] values;
+        /**
+         * Previous, more recently used, slot of every slot in its list
+         */
+        private final int[] previous;
+        /**
+         * Next, less recently used, slot of every slot in its list
+         */
+        private final int[] next;
+        /**
+         * Whether every slot is in the protected list
+         */
+        private final boolean[] isProtected;
+        /**
+         * Slot + 1 of the key placed in every index position, 0 for a free position
+         */
+        private final int[] index;
+        /**
+         * Number of entries
+         */
+        private volatile int size;
+        /**
+         * Number of protected entries
+         */
+        private int protectedSize;
+
+        /**
+         * Constructs an empty Segment
+         * @param capacity maximum number of entries
+         */
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, (int) ((long) capacity * PROTECTED_PERCENT / 100));
+            this.probation = capacity;
+            this.protectedList = capacity + 1;
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.previous = new int[capacity + 2];
+            this.next = new int[capacity + 2];
+            this.isProtected = new boolean[capacity];
+            this.index = new int[Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1];
+            clear();
+        }
+
+        /**
+         * Look a key up and mark it as recently used, promoting it to the protected list
+         * @param key the key
+         * @param hash the mixed key
+         * @return the value, or {@link #NONE}
+         */
+        long get(long key, long hash) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot < 0)
+                    return NONE;
+                touch(slot);
+                return values[slot];
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Store the value of a key
+         * @param key the key
+         * @param hash the mixed key
+         * @param value the value
+         * @return true if an entry has been evicted
+         */
+        boolean put(long key, long hash, long value) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    values[slot] = value;
+                    touch(slot);
+                    return false;
+                }
+                boolean evicted = false;
+                if (size == capacity) {
+                    /* the least recently used entry on probation goes first, protected entries only when there is none */
+                    slot = previous[probation] != probation ? previous[probation] : previous[protectedList];
+                    if (isProtected[slot])
+                        protectedSize--;
+                    unlink(slot);
+                    removeFromIndex(keys[slot], mix(keys[slot]));
+                    evicted = true;
+                }
+                else {
+                    slot = size;
+                    size++;
+                }
+                keys[slot] = key;
+                values[slot] = value;
+                isProtected[slot] = false;
+                linkFirst(slot, probation);
+                addToIndex(hash, slot);
+                return evicted;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Remove every entry
+         */
+        void clear() {
+            lock.lock();
+            try {
+                previous[probation] = next[probation] = probation;
+                previous[protectedList] = next[protectedList] = protectedList;
+                Arrays.fill(index, 0);
+                protectedSize = 0;
+                size = 0;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark a slot as the most recently used, moving it from probation to the protected list
+         * and demoting the least recently used protected slot when the protected list overflows
+         * @param slot the slot
+         */
+        private void touch(int slot) {
+            unlink(slot);
+            if (!isProtected[slot]) {
+                isProtected[slot] = true;
+                protectedSize++;
+                if (protectedSize > protectedCapacity) {
+                    int demoted = previous[protectedList];
+                    unlink(demoted);
+                    isProtected[demoted] = false;
+                    protectedSize--;
+                    linkFirst(demoted, probation);
+                }
+            }
+            linkFirst(slot, protectedList);
+        }
+
+        /**
+         * Insert a slot at the head of a list
+         * @param slot the slot
+         * @param list the sentinel of the list
+         */
+        private void linkFirst(int slot, int list) {
+            int first = next[list];
+            next[slot] = first;
+            previous[slot] = list;
+            previous[first] = slot;
+            next[list] = slot;
+        }
+
+        /**
+         * Remove a slot from its list
+         * @param slot the slot
+         */
+        private void unlink(int slot) {
+            next[previous[slot]] = next[slot];
+            previous[next[slot]] = previous[slot];
+        }
+
+        /**
+         * Find the slot of a key
+         * @param key the key
+         * @param hash the mixed key
+         * @return the slot, or -1 if the key is not in the segment
+         */
+        private int find(long key, long hash) {
+            int mask = index.length - 1;
+            for (int position = (int) hash & mask; index[position] != 0; position = position + 1 & mask) {
+                if (keys[index[position] - 1] == key)
+                    return index[position] - 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Place a slot into the index
+         * @param hash the mixed key of the slot
+         * @param slot the slot
+         */
+        private void addToIndex(long hash, int slot) {
+            int mask = index.length - 1;
+            int position = (int) hash & mask;
+            while (index[position] != 0)
+                position = position + 1 & mask;
+            index[position] = slot + 1;
+        }
+
+        /**
+         * Remove a key from the index, shifting back the keys probed after it so that no probe stops too early
+         * @param key the key
+         * @param hash the mixed key
+         */
+        private void removeFromIndex(long key, long hash) {
+            int mask = index.length - 1;
+            int position = (int) hash & mask;
+            while (keys[index[position] - 1] != key)
+                position = position + 1 & mask;
+            int free = position;
+            for (position = free + 1 & mask; index[position] != 0; position = position + 1 & mask) {
+                int home = (int) mix(keys[index[position] - 1]) & mask;
+                /* an entry can fill the free position if its home is not between the free position and itself */
+                if ((position - home & mask) >= (position - free & mask)) {
+                    index[free] = index[position];
+                    free = position;
+                }
+            }
+            index[free] = 0;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The package includes the shared cache of analysed positions serving the hints of computer players.
+ */
+package org.game.connect4.cache;
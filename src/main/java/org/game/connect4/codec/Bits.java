@@ -0,0 +1,125 @@
+package org.game.connect4.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bits reads and writes variable-length integers and little-endian bit fields in byte buffers.
+ * Bit fields are addressed by absolute bit offsets from a base byte index, so no reader or writer state is allocated.
+ */
+final class Bits {
+
+    private Bits() {}
+
+    /**
+     * Get the number of bits needed to write the values from 0 to max
+     * @param max the largest value, at least 0
+     * @return number of bits, at least 1
+     */
+    static int width(int max) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+    }
+
+    /**
+     * Get the number of bytes taken by a variable-length integer
+     * @param value a non-negative value
+     * @return number of bytes, between 1 and 5
+     */
+    static int varIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * Write a non-negative integer with 7 bits per byte, the high bit of a byte telling whether another byte follows
+     * @param buffer the buffer written at its position
+     * @param value a non-negative value
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read a non-negative integer written by {@link #putVarInt(ByteBuffer, int)}
+     * @param buffer the buffer read at its position
+     * @return the value
+     * @throws IllegalArgumentException if the value is malformed
+     */
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0)
+                    throw new IllegalArgumentException("Malformed variable-length integer.");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer.");
+    }
+
+    /**
+     * Clear the bytes that receive bit fields, which are written by OR-ing them in
+     * @param buffer the buffer
+     * @param base the index of the first byte
+     * @param bytes the number of bytes
+     */
+    static void clear(ByteBuffer buffer, int base, int bytes) {
+        for (int i = 0; i < bytes; i++)
+            buffer.put(base + i, (byte) 0);
+    }
+
+    /**
+     * Write a bit field into cleared bytes, least significant bit first
+     * @param buffer the buffer, its position is not changed
+     * @param base the index of the byte holding bit 0
+     * @param offset the bit offset of the field from the base
+     * @param value the value of the field
+     * @param bits the width of the field, at most 32
+     */
+    static void put(ByteBuffer buffer, int base, long offset, int value, int bits) {
+        while (bits > 0) {
+            int index = base + (int) (offset >>> 3);
+            int shift = (int) offset & 7;
+            int count = Math.min(8 - shift, bits);
+            buffer.put(index, (byte) (buffer.get(index) | (value & ((1 << count) - 1)) << shift));
+            value >>>= count;
+            offset += count;
+            bits -= count;
+        }
+    }
+
+    /**
+     * Read a bit field written by {@link #put(ByteBuffer, int, long, int, int)}
+     * @param buffer the buffer, its position is not changed
+     * @param base the index of the byte holding bit 0
+     * @param offset the bit offset of the field from the base
+     * @param bits the width of the field, at most 31
+     * @return the value of the field
+     */
+    static int get(ByteBuffer buffer, int base, long offset, int bits) {
+        int value = 0;
+        int read = 0;
+        while (read < bits) {
+            int shift = (int) offset & 7;
+            int count = Math.min(8 - shift, bits - read);
+            int b = buffer.get(base + (int) (offset >>> 3)) & 0xFF;
+            value |= (b >>> shift & ((1 << count) - 1)) << read;
+            offset += count;
+            read += count;
+        }
+        return value;
+    }
+
+    /**
+     * Get the number of bytes holding a number of bits
+     * @param bits number of bits
+     * @return number of bytes
+     */
+    static int bytes(long bits) {
+        return (int) ((bits + 7) >>> 3);
+    }
+}
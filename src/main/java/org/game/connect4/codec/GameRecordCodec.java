@@ -0,0 +1,92 @@
+package org.game.connect4.codec;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.exception.IllegalMoveException;
+import org.game.connect4.model.GameGrid;
+import org.game.connect4.util.GameStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * GameRecordCodec encodes the moves of a game into a compact binary record.
+ * <br/>
+ * A record holds the grid height, the grid width, the win length and the number of moves as variable-length integers,
+ * followed by every move packed into the bits needed to write a column index,
+ * that is 3 bits per move on the standard 7 columns wide grid and 4 bits up to 16 columns.
+ * The players are not part of the record: a record is replayed into a new game created by the caller.
+ * Encoding and decoding work straight on the buffer and allocate nothing.
+ */
+public final class GameRecordCodec {
+
+    private GameRecordCodec() {}
+
+    /**
+     * Get the number of bytes taken by the record of a game
+     * @param game the game
+     * @return number of bytes
+     */
+    public static int encodedSize(ConnectFourGame game) {
+        GameGrid grid = game.getGameGrid();
+        return Bits.varIntSize(grid.getHeight()) + Bits.varIntSize(grid.getWidth()) + Bits.varIntSize(grid.getWinLength())
+                + Bits.varIntSize(game.getMoveCount())
+                + Bits.bytes((long) game.getMoveCount() * Bits.width(grid.getWidth() - 1));
+    }
+
+    /**
+     * Write the record of a game at the position of a buffer, which is moved past it
+     * @param game the game
+     * @param buffer the buffer, with at least {@link #encodedSize(ConnectFourGame)} bytes remaining
+     */
+    public static void encode(ConnectFourGame game, ByteBuffer buffer) {
+        GameGrid grid = game.getGameGrid();
+        int moves = game.getMoveCount();
+        int moveBits = Bits.width(grid.getWidth() - 1);
+        Bits.putVarInt(buffer, grid.getHeight());
+        Bits.putVarInt(buffer, grid.getWidth());
+        Bits.putVarInt(buffer, grid.getWinLength());
+        Bits.putVarInt(buffer, moves);
+        int base = buffer.position();
+        int bytes = Bits.bytes((long) moves * moveBits);
+        Bits.clear(buffer, base, bytes);
+        for (int i = 0; i < moves; i++)
+            Bits.put(buffer, base, (long) i * moveBits, game.getMove(i) - 1, moveBits);
+        buffer.position(base + bytes);
+    }
+
+    /**
+     * Read a record at the position of a buffer, which is moved past it, and replay its moves into a game.
+     * After each move the status of the game is checked and the turn passes to the other player,
+     * as a client playing the game would do.
+     * @param buffer the buffer
+     * @param game a game without moves, of the recorded dimensions and win length
+     * @throws IllegalArgumentException if the game does not match or the record is malformed
+     * @throws IllegalMoveException if a recorded move can not be played
+     */
+    public static void decode(ByteBuffer buffer, ConnectFourGame game) {
+        GameGrid grid = game.getGameGrid();
+        int height = Bits.getVarInt(buffer);
+        int width = Bits.getVarInt(buffer);
+        int winLength = Bits.getVarInt(buffer);
+        int moves = Bits.getVarInt(buffer);
+        if (height != grid.getHeight() || width != grid.getWidth())
+            throw new IllegalArgumentException("The recorded game is " + height + "x" + width + " but the game is "
+                    + grid.getHeight() + "x" + grid.getWidth() + ".");
+        if (winLength != grid.getWinLength())
+            throw new IllegalArgumentException("The recorded game is won by " + winLength + " tokens but the game by "
+                    + grid.getWinLength() + ".");
+        if (game.getMoveCount() != 0)
+            throw new IllegalArgumentException("A record can only be replayed into a game without moves.");
+        if (moves > height * width)
+            throw new IllegalArgumentException("Malformed record, " + moves + " moves do not fit into the grid.");
+        int moveBits = Bits.width(width - 1);
+        int base = buffer.position();
+        for (int i = 0; i < moves; i++) {
+            int column = Bits.get(buffer, base, (long) i * moveBits, moveBits) + 1;
+            if (game.getStatus().getGameStatus() != GameStatus.CONTINUE || !game.playMove(column))
+                throw new IllegalMoveException("Recorded move " + (i + 1) + " in column " + column + " can not be played.");
+            if (game.checkGameStatus(column).getGameStatus() == GameStatus.CONTINUE)
+                game.switchPlayer();
+        }
+        buffer.position(base + Bits.bytes((long) moves * moveBits));
+    }
+}
@@ -0,0 +1,139 @@
+package org.game.connect4.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * GameRecordReader reads the records written by {@link GameRecordCodec} without replaying them into a game,
+ * for analyses that replay the moves on their own bitboards. A reader is a reusable cursor: reading a record
+ * only grows its move buffer when the record has more moves than any record read before, so reading a stream of
+ * records allocates nothing in the steady state. A reader is not thread-safe.
+ */
+public final class GameRecordReader {
+    /**
+     * Height of the grid of the last record
+     */
+    private int height;
+    /**
+     * Width of the grid of the last record
+     */
+    private int width;
+    /**
+     * Win length of the last record
+     */
+    private int winLength;
+    /**
+     * Number of moves of the last record
+     */
+    private int moveCount;
+    /**
+     * Column indexes (starting from 0...) of the moves of the last record
+     */
+    private int[] moves = new int[64];
+
+    /**
+     * Get the number of bytes taken by the record starting at an index of a buffer, from its header alone
+     * @param buffer the buffer, its position is not changed
+     * @param index the index of the first byte of the record
+     * @return the number of bytes of the record, or -1 if its header does not fit before the limit of the buffer
+     * @throws IllegalArgumentException if the header is malformed
+     */
+    public static int recordSize(ByteBuffer buffer, int index) {
+        int position = buffer.position();
+        try {
+            buffer.position(index);
+            Bits.getVarInt(buffer);
+            int width = Bits.getVarInt(buffer);
+            Bits.getVarInt(buffer);
+            int moves = Bits.getVarInt(buffer);
+            if (width == 0)
+                throw new IllegalArgumentException("Malformed record, the grid has no column.");
+            long size = buffer.position() - index + (((long) moves * Bits.width(width - 1) + 7) >>> 3);
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Malformed record, " + moves + " moves do not fit into a buffer.");
+            return (int) size;
+        }
+        catch (BufferUnderflowException e) {
+            return -1;
+        }
+        finally {
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * Read the record at the position of a buffer, which is moved past it
+     * @param buffer the buffer, holding the whole record
+     * @throws IllegalArgumentException if the record is malformed, the position is then past the record if its header could be read
+     * @throws BufferUnderflowException if the record does not fit before the limit of the buffer
+     */
+    public void next(ByteBuffer buffer) {
+        int h = Bits.getVarInt(buffer);
+        int w = Bits.getVarInt(buffer);
+        int n = Bits.getVarInt(buffer);
+        int count = Bits.getVarInt(buffer);
+        if (w == 0)
+            throw new IllegalArgumentException("Malformed record, the grid has no column.");
+        int moveBits = Bits.width(w - 1);
+        int base = buffer.position();
+        int bytes = Bits.bytes((long) count * moveBits);
+        if (bytes > buffer.limit() - base)
+            throw new BufferUnderflowException();
+        buffer.position(base + bytes);
+        if ((long) count > (long) h * w)
+            throw new IllegalArgumentException("Malformed record, " + count + " moves do not fit into the grid.");
+        if (count > moves.length)
+            moves = new int[Math.max(count, 2 * moves.length)];
+        for (int i = 0; i < count; i++)
+            moves[i] = Bits.get(buffer, base, (long) i * moveBits, moveBits);
+        this.height = h;
+        this.width = w;
+        this.winLength = n;
+        this.moveCount = count;
+    }
+
+    /**
+     * Get the height of the grid of the last record
+     * @return height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of the grid of the last record
+     * @return width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of consecutive tokens needed to win in the last record
+     * @return win length of the grid
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Get the number of moves of the last record
+     * @return number of moves
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get a move of the last record. A column index is not checked against the width of the grid,
+     * since any value the move bits can hold may come from a corrupted record.
+     * @param index the index of the move, from 0 for the first move to getMoveCount() - 1 for the last one
+     * @return the column index (starting from 0...) of the move
+     * @throws IndexOutOfBoundsException if the record has no move at this index
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount)
+            throw new IndexOutOfBoundsException("Move " + index + " is not in the record.");
+        return moves[index];
+    }
+}
@@ -0,0 +1,243 @@
+package org.game.connect4.codec;
+
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.exception.InvalidDimensionException;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.model.GameGrid;
+import org.game.connect4.model.LongBitboard;
+import org.game.connect4.util.TokenColor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PositionCodec encodes the tokens of a grid into a compact binary form.
+ * <br/>
+ * Grids whose bitboard fits into a long, which includes the standard 6x7 grid, are encoded as a single 64-bit key:
+ * every column takes height + 1 bits holding its red tokens and a marker bit just above its top token.
+ * The key identifies the position exactly and can be used as a map key.
+ * <br/>
+ * In a buffer, a position is written as its height, width and win length as variable-length integers followed
+ * either by the 8 bytes of the key, or, for larger grids, by the height of every column packed into the bits needed to write
+ * the grid height, and one bit per token telling whether it is blue.
+ * Encoding and decoding work straight on the buffer and allocate nothing but the decoded grid.
+ */
+public final class PositionCodec {
+    /**
+     * Ordinal of the color whose tokens are set in a key
+     */
+    private static final int RED = TokenColor.RED.ordinal();
+
+    private PositionCodec() {}
+
+    /**
+     * Get the exact key of the position of a bitboard
+     * @param board a bitboard for which {@link LongBitboard#fits(int, int)} holds
+     * @return the key of the position
+     * @throws IllegalArgumentException if the board does not fit into a key
+     */
+    public static long toKey(Bitboard board) {
+        int height = board.getHeight();
+        int width = board.getWidth();
+        if (!LongBitboard.fits(height, width))
+            throw new IllegalArgumentException("A " + height + "x" + width + " grid does not fit into a 64-bit key.");
+        if (board instanceof LongBitboard) {
+            LongBitboard bits = (LongBitboard) board;
+            long red = bits.getTokens(RED);
+            long mask = red | bits.getTokens(1 - RED);
+            return red | (mask + bottom(height, width));
+        }
+        long key = 0L;
+        for (int column = 0; column < width; column++) {
+            int base = column * (height + 1);
+            int columnHeight = board.getColumnHeight(column);
+            for (int row = 0; row < columnHeight; row++) {
+                if (board.getCell(row, column) == RED)
+                    key |= 1L << (base + row);
+            }
+            key |= 1L << (base + columnHeight);
+        }
+        return key;
+    }
+
+    /**
+     * Get the key of the mirror image of a position, with the columns in reverse order
+     * @param key a key returned by {@link #toKey(Bitboard)}
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return the key of the mirrored position
+     */
+    public static long mirror(long key, int height, int width) {
+        int columnBits = height + 1;
+        long columnMask = (1L << columnBits) - 1;
+        long mirrored = 0L;
+        for (int column = 0; column < width; column++)
+            mirrored |= (key >>> (column * columnBits) & columnMask) << ((width - 1 - column) * columnBits);
+        return mirrored;
+    }
+
+    /**
+     * Get the key shared by a position and its mirror image, which is the smaller of their keys
+     * @param board a bitboard for which {@link LongBitboard#fits(int, int)} holds
+     * @return the canonical key of the position
+     * @throws IllegalArgumentException if the board does not fit into a key
+     */
+    public static long toCanonicalKey(Bitboard board) {
+        long key = toKey(board);
+        return Math.min(key, mirror(key, board.getHeight(), board.getWidth()));
+    }
+
+    /**
+     * Drop the tokens of a key into an empty grid
+     * @param key a key returned by {@link #toKey(Bitboard)} for a grid of the same dimensions
+     * @param grid an empty grid receiving the tokens
+     * @throws IllegalArgumentException if the grid is not empty or the key is malformed
+     */
+    public static void fromKey(long key, GameGrid grid) {
+        int height = grid.getHeight();
+        int width = grid.getWidth();
+        if (!LongBitboard.fits(height, width))
+            throw new IllegalArgumentException("A " + height + "x" + width + " grid does not fit into a 64-bit key.");
+        checkEmpty(grid);
+        long columnMask = (1L << (height + 1)) - 1;
+        for (int column = 0; column < width; column++) {
+            long bits = key >>> (column * (height + 1)) & columnMask;
+            if (bits == 0)
+                throw new IllegalArgumentException("Malformed position key, column " + (column + 1) + " has no marker.");
+            int columnHeight = 63 - Long.numberOfLeadingZeros(bits);
+            for (int row = 0; row < columnHeight; row++)
+                grid.dropToken(column, (bits >>> row & 1) != 0 ? TokenColor.RED : TokenColor.BLUE);
+        }
+    }
+
+    /**
+     * Get the number of bytes taken by the encoding of a grid
+     * @param grid the grid
+     * @return number of bytes
+     */
+    public static int encodedSize(GameGrid grid) {
+        int height = grid.getHeight();
+        int width = grid.getWidth();
+        int header = Bits.varIntSize(height) + Bits.varIntSize(width) + Bits.varIntSize(grid.getWinLength());
+        if (LongBitboard.fits(height, width))
+            return header + Long.BYTES;
+        return header + Bits.bytes((long) width * Bits.width(height) + grid.getMoveCount());
+    }
+
+    /**
+     * Write the position of a grid at the position of a buffer, which is moved past it
+     * @param grid the grid
+     * @param buffer the buffer, with at least {@link #encodedSize(GameGrid)} bytes remaining
+     */
+    public static void encode(GameGrid grid, ByteBuffer buffer) {
+        Bitboard board = grid.getBitboard();
+        int height = board.getHeight();
+        int width = board.getWidth();
+        Bits.putVarInt(buffer, height);
+        Bits.putVarInt(buffer, width);
+        Bits.putVarInt(buffer, grid.getWinLength());
+        if (LongBitboard.fits(height, width)) {
+            buffer.putLong(toKey(board));
+            return;
+        }
+        int heightBits = Bits.width(height);
+        long tokenOffset = (long) width * heightBits;
+        int base = buffer.position();
+        int bytes = Bits.bytes(tokenOffset + board.getMoveCount());
+        Bits.clear(buffer, base, bytes);
+        long offset = 0;
+        for (int column = 0; column < width; column++) {
+            int columnHeight = board.getColumnHeight(column);
+            Bits.put(buffer, base, (long) column * heightBits, columnHeight, heightBits);
+            for (int row = 0; row < columnHeight; row++) {
+                if (board.getCell(row, column) != RED)
+                    Bits.put(buffer, base, tokenOffset + offset, 1, 1);
+                offset++;
+            }
+        }
+        buffer.position(base + bytes);
+    }
+
+    /**
+     * Read a position at the position of a buffer, which is moved past it, into a new grid with the encoded win length
+     * @param buffer the buffer
+     * @return the grid holding the position
+     * @throws InvalidDimensionException if the encoded dimensions or win length are invalid
+     * @throws IllegalArgumentException if the encoding is malformed, or too short for the encoded dimensions
+     */
+    public static GameGrid decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int height = Bits.getVarInt(buffer);
+        int width = Bits.getVarInt(buffer);
+        int winLength = Bits.getVarInt(buffer);
+        ConnectFourInitializer.checkGridDimensions(height, width, winLength);
+        /* the dimensions come from the buffer, so they are checked against it before the grid is allocated */
+        long bodyBits = LongBitboard.fits(height, width) ? Long.SIZE : (long) width * Bits.width(height);
+        if ((bodyBits + 7) >>> 3 > buffer.remaining() || (long) height * width > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Malformed position, a " + height + "x" + width
+                    + " grid does not fit into the " + buffer.remaining() + " remaining bytes.");
+        GameGrid grid = new GameGrid(height, width, winLength);
+        buffer.position(start);
+        decode(buffer, grid);
+        return grid;
+    }
+
+    /**
+     * Read a position at the position of a buffer, which is moved past it, into an empty grid
+     * @param buffer the buffer
+     * @param grid an empty grid of the encoded dimensions and win length
+     * @throws IllegalArgumentException if the grid does not match or the encoding is malformed
+     */
+    public static void decode(ByteBuffer buffer, GameGrid grid) {
+        int height = Bits.getVarInt(buffer);
+        int width = Bits.getVarInt(buffer);
+        int winLength = Bits.getVarInt(buffer);
+        if (height != grid.getHeight() || width != grid.getWidth())
+            throw new IllegalArgumentException("The encoded position is " + height + "x" + width + " but the grid is "
+                    + grid.getHeight() + "x" + grid.getWidth() + ".");
+        if (winLength != grid.getWinLength())
+            throw new IllegalArgumentException("The encoded position is won by " + winLength + " tokens but the grid by "
+                    + grid.getWinLength() + ".");
+        if (LongBitboard.fits(height, width)) {
+            fromKey(buffer.getLong(), grid);
+            return;
+        }
+        checkEmpty(grid);
+        int heightBits = Bits.width(height);
+        long tokenOffset = (long) width * heightBits;
+        int base = buffer.position();
+        long offset = 0;
+        for (int column = 0; column < width; column++) {
+            int columnHeight = Bits.get(buffer, base, (long) column * heightBits, heightBits);
+            if (columnHeight > height)
+                throw new IllegalArgumentException("Malformed position, column " + (column + 1) + " is too high.");
+            for (int row = 0; row < columnHeight; row++) {
+                boolean blue = Bits.get(buffer, base, tokenOffset + offset++, 1) != 0;
+                grid.dropToken(column, blue ? TokenColor.BLUE : TokenColor.RED);
+            }
+        }
+        buffer.position(base + Bits.bytes(tokenOffset + offset));
+    }
+
+    /**
+     * Get the marker bits of an empty bitboard, one at the bottom of every column
+     * @param height the height of the board
+     * @param width the width of the board
+     * @return the marker bits
+     */
+    private static long bottom(int height, int width) {
+        long bottom = 0L;
+        for (int column = 0; column < width; column++)
+            bottom |= 1L << (column * (height + 1));
+        return bottom;
+    }
+
+    /**
+     * Check that a grid receiving a decoded position is empty
+     * @param grid the grid
+     * @throws IllegalArgumentException if the grid holds tokens
+     */
+    private static void checkEmpty(GameGrid grid) {
+        if (grid.getMoveCount() != 0)
+            throw new IllegalArgumentException("A position can only be decoded into an empty grid.");
+    }
+}
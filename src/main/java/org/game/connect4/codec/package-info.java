@@ -0,0 +1,4 @@
+/**
+ * The package includes the compact binary codecs of Connect Four positions and game records.
+ */
+package org.game.connect4.codec;
@@ -0,0 +1,349 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.model.Bitboard;
+
+import java.util.Arrays;
+
+/**
+ * AlphaBetaSearch holds the state of one negamax worker with alpha-beta pruning on its own copy of a bitboard.
+ * Moves are made and unmade in place, columns are tried from the center outwards after the best move stored in the
+ * transposition table, which keys positions by their canonical key so that mirror images share an entry, and
+ * positions beyond the search horizon are scored by how many possible winning lines run through each token.
+ * Engines drive the root of the search through {@link #searchMove}.
+ */
+final class AlphaBetaSearch {
+    /**
+     * Score of a win on the next move, a win n plies ahead is scored WIN_SCORE - n
+     */
+    static final int WIN_SCORE = NegamaxEngine.WIN_SCORE;
+    /**
+     * Scores beyond this threshold are forced wins or losses
+     */
+    static final int WIN_THRESHOLD = NegamaxEngine.WIN_THRESHOLD;
+    /**
+     * Visited positions are reported to the control once every (REPORT_INTERVAL + 1) positions
+     */
+    private static final int REPORT_INTERVAL = 1023;
+    /**
+     * Key XOR-ed into the position key when the second token color is to move
+     */
+    private static final long SIDE_KEY = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+
+    /**
+     * Working copy of the board, moves are made and unmade in place
+     */
+    private final Bitboard board;
+    /**
+     * Height of the board
+     */
+    private final int height;
+    /**
+     * Number of slots of the board
+     */
+    private final int slots;
+    /**
+     * Column indexes in search order
+     */
+    private final int[] order;
+    /**
+     * Positional weight of every slot
+     */
+    private final int[] weights;
+    /**
+     * Sum of the positional weights of the tokens of each color
+     */
+    private final int[] material = new int[2];
+    /**
+     * Transposition table, or null
+     */
+    private final TranspositionTable table;
+    /**
+     * Whether table results are only used when they were searched to exactly the required depth
+     */
+    private final boolean exactDepthOnly;
+    /**
+     * Key separating boards of different dimensions in the table
+     */
+    private final long dimensionKey;
+    /**
+     * Budgets shared with the other workers of the search
+     */
+    private final SearchControl control;
+    /**
+     * Number of positions visited by this worker
+     */
+    private long nodes;
+
+    /**
+     * Constructs a worker on the given board
+     * @param board working copy of the board, owned by the worker
+     * @param table transposition table, or null
+     * @param exactDepthOnly true to only use table results searched to exactly the required depth,
+     *                       which keeps the scores of a fixed-depth search independent of the order
+     *                       in which parallel workers fill the table
+     * @param control budgets shared with the other workers of the search
+     */
+    AlphaBetaSearch(Bitboard board, TranspositionTable table, boolean exactDepthOnly, SearchControl control) {
+        this.board = board;
+        this.height = board.getHeight();
+        this.slots = board.getHeight() * board.getWidth();
+        this.order = centerFirstOrder(board.getWidth());
+        this.weights = slotWeights(board.getHeight(), board.getWidth(), board.getWinLength());
+        this.table = table;
+        this.exactDepthOnly = exactDepthOnly;
+        this.dimensionKey = ((long) board.getWinLength() << 48 | (long) board.getHeight() << 32 | board.getWidth())
+                * 0xC2B2AE3D27D4EB4FL;
+        this.control = control;
+        for (int column = 0; column < board.getWidth(); column++) {
+            for (int row = 0; row < board.getColumnHeight(column); row++)
+                material[board.getCell(row, column)] += weights[column * height + row];
+        }
+    }
+
+    /**
+     * Get the order in which the columns of a board are searched, from the center outwards
+     * @param width the width of the board
+     * @return column indexes (starting from 0...) in search order
+     */
+    static int[] centerFirstOrder(int width) {
+        int[] order = new int[width];
+        for (int i = 0; i < width; i++)
+            order[i] = width / 2 + (1 - 2 * (i % 2)) * ((i + 1) / 2);
+        return order;
+    }
+
+    /**
+     * Get the positional weight of every slot of a board, which is the number of possible winning lines through it
+     * @param height the height of the board
+     * @param width the width of the board
+     * @param winLength the number of consecutive tokens needed to win
+     * @return weights indexed by column * height + row
+     */
+    static int[] slotWeights(int height, int width, int winLength) {
+        int[] weights = new int[height * width];
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {-1, 1}};
+        for (int[] direction : directions) {
+            for (int column = 0; column < width; column++) {
+                for (int row = 0; row < height; row++) {
+                    int lastRow = row + (winLength - 1) * direction[0];
+                    int lastColumn = column + (winLength - 1) * direction[1];
+                    if (lastRow < 0 || lastRow >= height || lastColumn >= width)
+                        continue;
+                    for (int i = 0; i < winLength; i++)
+                        weights[(column + i * direction[1]) * height + row + i * direction[0]]++;
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Move an element of the root moves to the front, keeping the order of the others
+     * @param moves the root moves
+     * @param index the index of the element to move
+     */
+    static void moveToFront(int[] moves, int index) {
+        int move = moves[index];
+        System.arraycopy(moves, 0, moves, 1, index);
+        moves[0] = move;
+    }
+
+    /**
+     * Get the playable columns of the board in search order
+     * @return column indexes (starting from 0...) of the playable columns
+     */
+    int[] rootMoves() {
+        int[] moves = new int[order.length];
+        int count = 0;
+        for (int column : order) {
+            if (board.canPlay(column))
+                moves[count++] = column;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Find a move which wins the game on the spot
+     * @param color the ordinal of the token color to move
+     * @return the column index of the first winning move in search order, or -1 if there is none
+     */
+    int winningMove(int color) {
+        for (int column : order) {
+            if (board.canPlay(column) && board.isWinningMove(column, color))
+                return column;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the deepest iteration that makes sense for the board
+     * @param limits budgets of the search
+     * @return the smaller of the depth budget and the number of empty slots
+     */
+    int maxDepth(SearchLimits limits) {
+        return Math.min(limits.getMaxDepth(), slots - board.getMoveCount());
+    }
+
+    /**
+     * Get the number of positions visited by this worker
+     * @return number of visited positions
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Search a root move which does not win on the spot
+     * @param column the column index of the move
+     * @param color the ordinal of the token color making the move
+     * @param depth depth of the iteration in plies, including the move
+     * @param alpha lower bound for the player making the move
+     * @param beta upper bound for the player making the move
+     * @return score of the move from the point of view of the player making it,
+     *         meaningless if the control has been stopped meanwhile
+     */
+    int searchMove(int column, int color, int depth, int alpha, int beta) {
+        return -negamax(column, color, 1 - color, depth - 1, -beta, -alpha, 1);
+    }
+
+    /**
+     * Play a move, search the resulting position and take the move back
+     * @param column the column index of the move
+     * @param moved the ordinal of the token color making the move
+     * @param color the ordinal of the token color to move after the move
+     * @param depth remaining depth in plies after the move
+     * @param alpha lower bound for the player to move after the move
+     * @param beta upper bound for the player to move after the move
+     * @param ply distance of the resulting position from the root
+     * @return score of the resulting position from the point of view of the player to move after the move
+     */
+    private int negamax(int column, int moved, int color, int depth, int alpha, int beta, int ply) {
+        int row = board.play(column, moved);
+        int slot = column * height + row;
+        material[moved] += weights[slot];
+        int score = negamax(color, depth, alpha, beta, ply);
+        material[moved] -= weights[slot];
+        board.undo(column);
+        return score;
+    }
+
+    /**
+     * Search a position where the previous move has not won
+     * @param color the ordinal of the token color to move
+     * @param depth remaining depth in plies
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @param ply distance from the root
+     * @return score of the position from the point of view of the player to move
+     */
+    private int negamax(int color, int depth, int alpha, int beta, int ply) {
+        if ((++nodes & REPORT_INTERVAL) == 0)
+            control.report(REPORT_INTERVAL + 1);
+        if (control.isStopped())
+            return 0;
+        if (board.getMoveCount() == slots)
+            return 0;
+        if (board.countImmediateWins(color) > 0)
+            return WIN_SCORE - ply - 1;
+        if (depth == 0)
+            return material[color] - material[1 - color];
+        /* two winning columns of the opponent can not both be blocked, and a single one has to be */
+        int threats = board.countImmediateWins(1 - color);
+        if (threats > 1)
+            return -(WIN_SCORE - ply - 2);
+        if (threats == 1) {
+            int forced = 0;
+            while (!board.canPlay(forced) || !board.isWinningMove(forced, 1 - color))
+                forced++;
+            return -negamax(forced, color, 1 - color, depth - 1, -beta, -alpha, ply + 1);
+        }
+
+        long key = 0L;
+        boolean mirrored = false;
+        int tableMove = -1;
+        int originalAlpha = alpha;
+        if (table != null) {
+            /* a position and its mirror image share one entry, whose move is stored for the canonical orientation */
+            key = board.getCanonicalKey() ^ dimensionKey ^ (color == 0 ? 0L : SIDE_KEY);
+            mirrored = board.isMirrored();
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.NONE) {
+                tableMove = TranspositionTable.move(entry);
+                if (mirrored && tableMove >= 0)
+                    tableMove = order.length - 1 - tableMove;
+                int entryDepth = TranspositionTable.depth(entry);
+                if (entryDepth == depth || (entryDepth > depth && !exactDepthOnly)) {
+                    int stored = fromTable(TranspositionTable.score(entry), ply);
+                    int flag = TranspositionTable.flag(entry);
+                    if (flag == TranspositionTable.EXACT)
+                        return stored;
+                    if (flag == TranspositionTable.LOWER_BOUND && stored > alpha)
+                        alpha = stored;
+                    else if (flag == TranspositionTable.UPPER_BOUND && stored < beta)
+                        beta = stored;
+                    if (alpha >= beta)
+                        return stored;
+                }
+            }
+        }
+
+        int best = -Integer.MAX_VALUE;
+        int bestMove = -1;
+        if (tableMove >= 0 && board.canPlay(tableMove)) {
+            best = -negamax(tableMove, color, 1 - color, depth - 1, -beta, -alpha, ply + 1);
+            if (control.isStopped())
+                return 0;
+            bestMove = tableMove;
+            if (best > alpha)
+                alpha = best;
+        }
+        for (int i = 0; i < order.length && alpha < beta; i++) {
+            int column = order[i];
+            if (column == tableMove || !board.canPlay(column))
+                continue;
+            int score = -negamax(column, color, 1 - color, depth - 1, -beta, -alpha, ply + 1);
+            if (control.isStopped())
+                return 0;
+            if (score > best) {
+                best = score;
+                bestMove = column;
+                if (best > alpha)
+                    alpha = best;
+            }
+        }
+        if (table != null) {
+            int flag = best <= originalAlpha ? TranspositionTable.UPPER_BOUND :
+                    best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, depth, flag, toTable(best, ply), mirrored && bestMove >= 0 ? order.length - 1 - bestMove : bestMove);
+        }
+        return best;
+    }
+
+    /**
+     * Convert a score into the form kept in the table, where wins and losses count plies from the stored position
+     * @param score score relative to the root
+     * @param ply distance of the position from the root
+     * @return score relative to the position
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD)
+            return score + ply;
+        if (score <= -WIN_THRESHOLD)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * Convert a score kept in the table back into a score relative to the root
+     * @param score score relative to the stored position
+     * @param ply distance of the position from the root
+     * @return score relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD)
+            return score - ply;
+        if (score <= -WIN_THRESHOLD)
+            return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,583 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.model.LongBitboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * MctsEngine picks moves with a Monte Carlo tree search using the UCT selection rule.
+ * Instead of searching every move to a fixed depth, it grows a tree towards the most promising moves and scores
+ * the leaves with random games played to their end, so it keeps its strength on large grids and long win lengths
+ * where alpha-beta search can not look far enough.
+ * <br/>
+ * The tree lives in a pool of nodes held in primitive arrays, allocated once per engine and reused by every search,
+ * so a search creates no object per node. Every leaf is scored by a batch of random playouts on the worker's own
+ * copy of the bitboard, moves being made and unmade in place without allocating. When the grid fits into a long,
+ * the playouts run on two plain longs instead, checking the whole color for a line after every move.
+ * <br/>
+ * With several threads, the workers share the tree. A worker descending through a node adds its pending playouts
+ * to the visits of the node before their results are known, which counts them as losses for the time being.
+ * This virtual loss steers the other workers towards other moves. Nodes are expanded by a single worker,
+ * claimed with a compare-and-set, and the statistics are updated with atomic adds, so no lock is taken.
+ * <br/>
+ * The time budget of the {@link SearchLimits} bounds a search and the node budget counts playouts.
+ * The depth budget is not used. A search reports the number of playouts as its number of nodes, the depth
+ * of the deepest node reached, and a score between -{@link #SCORE_SCALE} and {@link #SCORE_SCALE} from the
+ * expected result of the best move; a win on the next move is scored {@link NegamaxEngine#WIN_SCORE} - 1.
+ * Searches of one engine run one at a time.
+ */
+public class MctsEngine implements MoveEngine, AutoCloseable {
+    /**
+     * Default number of nodes of the pool
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 19;
+    /**
+     * Default number of playouts per leaf
+     */
+    public static final int DEFAULT_BATCH = 8;
+    /**
+     * Default seed of the random playouts
+     */
+    public static final long DEFAULT_SEED = 0x5DEECE66DL;
+    /**
+     * Score of a move which always wins, a move which always loses is scored -SCORE_SCALE
+     */
+    public static final int SCORE_SCALE = 1000;
+    /**
+     * Weight of the exploration term of the UCT rule
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+    /**
+     * First child of a node which has not been expanded
+     */
+    private static final int UNEXPANDED = -1;
+    /**
+     * First child of a node being expanded by a worker
+     */
+    private static final int EXPANDING = -2;
+    /**
+     * First child of a node which can not be expanded because the pool is full
+     */
+    private static final int LEAF = -3;
+    /**
+     * Node whose game goes on
+     */
+    private static final byte OPEN = 0;
+    /**
+     * Node whose move wins the game
+     */
+    private static final byte WIN = 1;
+    /**
+     * Node whose move fills the grid without winning
+     */
+    private static final byte DRAW = 2;
+
+    /**
+     * Budgets of every search
+     */
+    private final SearchLimits limits;
+    /**
+     * Number of playouts per leaf
+     */
+    private final int batch;
+    /**
+     * Seed of the random playouts
+     */
+    private final long seed;
+    /**
+     * Number of workers sharing the tree
+     */
+    private final int threads;
+    /**
+     * Pool running the workers, or null with a single worker
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Number of nodes of the pool
+     */
+    private final int capacity;
+    /**
+     * Index of the first child of every node, or one of {@link #UNEXPANDED}, {@link #EXPANDING} and {@link #LEAF}.
+     * The children of a node are stored next to each other and published by setting this index.
+     */
+    private final AtomicIntegerArray firstChild;
+    /**
+     * Number of children of every expanded node
+     */
+    private final short[] childCount;
+    /**
+     * Column index (starting from 0...) of the move leading to every node
+     */
+    private final short[] move;
+    /**
+     * Whether the move leading to every node ends the game, one of {@link #OPEN}, {@link #WIN} and {@link #DRAW}
+     */
+    private final byte[] terminal;
+    /**
+     * Number of playouts through every node, including the pending ones
+     */
+    private final AtomicLongArray visits;
+    /**
+     * Sum of the playout results through every node, for the player of the move leading to it:
+     * 2 for a win, 1 for a tie and 0 for a loss
+     */
+    private final AtomicLongArray wins;
+    /**
+     * Number of nodes in use
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructs a single-threaded MctsEngine with the default search limits
+     */
+    public MctsEngine() {
+        this(SearchLimits.DEFAULT);
+    }
+
+    /**
+     * Constructs a single-threaded MctsEngine with the given search limits
+     * @param limits budgets of every search
+     */
+    public MctsEngine(SearchLimits limits) {
+        this(limits, 1);
+    }
+
+    /**
+     * Constructs an MctsEngine with the default pool, batch and seed
+     * @param limits budgets of every search
+     * @param threads number of workers sharing the tree
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public MctsEngine(SearchLimits limits, int threads) {
+        this(limits, threads, DEFAULT_CAPACITY, DEFAULT_BATCH, DEFAULT_SEED);
+    }
+
+    /**
+     * Constructs an MctsEngine
+     * @param limits budgets of every search
+     * @param threads number of workers sharing the tree
+     * @param capacity number of nodes of the pool, once it is full the leaves are no longer expanded; a pool too
+     *                 small to hold the moves of the root falls back to the first playable move from the center
+     * @param batch number of playouts per leaf
+     * @param seed seed of the random playouts, a single-threaded search bounded by playouts is reproducible
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public MctsEngine(SearchLimits limits, int threads, int capacity, int batch, long seed) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads should be > 0.");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity should be > 0.");
+        if (batch <= 0)
+            throw new IllegalArgumentException("Number of playouts per leaf should be > 0.");
+        this.limits = limits;
+        this.threads = threads;
+        this.capacity = capacity;
+        this.batch = batch;
+        this.seed = seed;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.firstChild = new AtomicIntegerArray(capacity);
+        this.childCount = new short[capacity];
+        this.move = new short[capacity];
+        this.terminal = new byte[capacity];
+        this.visits = new AtomicLongArray(capacity);
+        this.wins = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Get the search limits
+     * @return budgets of every search
+     */
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Get the number of workers sharing the tree
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Get the number of nodes of the pool
+     * @return capacity of the pool
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized SearchResult search(ConnectFourGame game) {
+        long start = System.nanoTime();
+        Bitboard board = game.getGameGrid().getBitboard();
+        int color = game.getCurrentPlayer().getTokenColor().ordinal();
+        int playable = 0;
+        for (int column = 0; column < board.getWidth(); column++) {
+            if (!board.canPlay(column))
+                continue;
+            if (board.isWinningMove(column, color))
+                return new SearchResult(column + 1, NegamaxEngine.WIN_SCORE - 1, 1, 0, System.nanoTime() - start);
+            playable++;
+        }
+        if (playable == 0)
+            throw new IllegalStateException("No move can be played in this game.");
+
+        size.set(1);
+        reset(0, -1);
+        SearchControl control = new SearchControl(limits, start);
+        SplittableRandom master = new SplittableRandom(seed);
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++)
+            workers[i] = new Worker(board.copy(), color, master.split(), control);
+        if (pool == null) {
+            workers[0].call();
+        }
+        else {
+            List<Callable<Void>> tasks = new ArrayList<>(List.of(workers));
+            ParallelNegamaxEngine.awaitAll(pool.invokeAll(tasks));
+        }
+
+        long playouts = 0;
+        int depth = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+            depth = Math.max(depth, worker.maxDepth);
+        }
+        int first = firstChild.get(0);
+        if (first < 0) {
+            /* the pool could not hold the moves of the root, so no move has statistics */
+            for (int column : AlphaBetaSearch.centerFirstOrder(board.getWidth())) {
+                if (board.canPlay(column))
+                    return new SearchResult(column + 1, 0, depth, playouts, System.nanoTime() - start);
+            }
+        }
+        int best = first;
+        for (int child = first + 1; child < first + childCount[0]; child++) {
+            if (visits.get(child) > visits.get(best))
+                best = child;
+        }
+        long n = visits.get(best);
+        int score = n == 0 ? 0 : (int) Math.round((wins.get(best) / (double) n - 1) * SCORE_SCALE);
+        return new SearchResult(move[best] + 1, score, depth, playouts, System.nanoTime() - start);
+    }
+
+    /**
+     * Shut down the pool of the workers
+     */
+    @Override
+    public void close() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    /**
+     * Clear a node of the pool
+     * @param node the index of the node
+     * @param column the column index of the move leading to the node, or -1 for the root
+     */
+    private void reset(int node, int column) {
+        move[node] = (short) column;
+        terminal[node] = OPEN;
+        childCount[node] = 0;
+        visits.set(node, 0);
+        wins.set(node, 0);
+        firstChild.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Worker descends the shared tree and plays the playouts of its leaves on its own copy of the bitboard.
+     */
+    private final class Worker implements Callable<Void> {
+        /**
+         * Copy of the bitboard, at the searched position between two iterations
+         */
+        private final Bitboard board;
+        /**
+         * Ordinal of the token color to move at the root
+         */
+        private final int rootColor;
+        /**
+         * Random generator of the playouts
+         */
+        private final SplittableRandom random;
+        /**
+         * Budgets shared with the other workers
+         */
+        private final SearchControl control;
+        /**
+         * Nodes of the current path from the root
+         */
+        private final int[] path;
+        /**
+         * Columns of the moves of the current playout
+         */
+        private final int[] history;
+        /**
+         * Column indexes (starting from 0...) from the center outwards
+         */
+        private final int[] order;
+        /**
+         * Heights of the columns at the leaf, when the grid fits into a long
+         */
+        private final int[] leafHeights;
+        /**
+         * Heights of the columns during a playout, when the grid fits into a long
+         */
+        private final int[] columnHeights;
+        /**
+         * Number of slots of the board
+         */
+        private final int slots;
+        /**
+         * Number of playouts played
+         */
+        private long playouts;
+        /**
+         * Depth of the deepest node reached
+         */
+        private int maxDepth;
+
+        /**
+         * Constructs a Worker
+         * @param board copy of the bitboard of the searched position
+         * @param rootColor ordinal of the token color to move
+         * @param random random generator of the playouts
+         * @param control budgets shared with the other workers
+         */
+        Worker(Bitboard board, int rootColor, SplittableRandom random, SearchControl control) {
+            this.board = board;
+            this.rootColor = rootColor;
+            this.random = random;
+            this.control = control;
+            this.slots = board.getHeight() * board.getWidth();
+            this.path = new int[slots - board.getMoveCount() + 1];
+            this.history = new int[slots];
+            this.order = AlphaBetaSearch.centerFirstOrder(board.getWidth());
+            this.leafHeights = new int[board.getWidth()];
+            this.columnHeights = new int[board.getWidth()];
+        }
+
+        @Override
+        public Void call() {
+            do {
+                iterate();
+                control.arm();
+            } while (!control.report(batch));
+            return null;
+        }
+
+        /**
+         * Select a leaf, expanding it if it has been visited before, score it and back the score up to the root
+         */
+        private void iterate() {
+            int node = 0;
+            int color = rootColor;
+            int depth = 0;
+            path[0] = 0;
+            visits.addAndGet(0, batch);
+            while (terminal[node] == OPEN) {
+                int first = firstChild.get(node);
+                if (first == UNEXPANDED && (node == 0 || visits.get(node) > batch) && expand(node, color))
+                    first = firstChild.get(node);
+                if (first < 0)
+                    break;
+                node = select(node, first);
+                /* the pending playouts count as losses until their results are backed up */
+                visits.addAndGet(node, batch);
+                board.play(move[node], color);
+                color = 1 - color;
+                path[++depth] = node;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+
+            long score;
+            if (terminal[node] == WIN)
+                score = 2L * batch;
+            else if (terminal[node] == DRAW)
+                score = batch;
+            else
+                score = playouts(color);
+            for (int d = depth; d >= 0; d--) {
+                wins.addAndGet(path[d], score);
+                score = 2L * batch - score;
+                if (d > 0)
+                    board.undo(move[path[d]]);
+            }
+        }
+
+        /**
+         * Create the children of a node, one per playable column, unless another worker is already doing it
+         * @param node the index of the node
+         * @param color ordinal of the token color to move at the node
+         * @return true if this worker has expanded the node
+         */
+        private boolean expand(int node, int color) {
+            if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING))
+                return false;
+            int count = 0;
+            for (int column : order) {
+                if (board.canPlay(column))
+                    count++;
+            }
+            int first = size.getAndAdd(count);
+            if (first > capacity - count) {
+                firstChild.set(node, LEAF);
+                return false;
+            }
+            int child = first;
+            boolean full = board.getMoveCount() + 1 == slots;
+            for (int column : order) {
+                if (!board.canPlay(column))
+                    continue;
+                reset(child, column);
+                if (board.isWinningMove(column, color))
+                    terminal[child] = WIN;
+                else if (full)
+                    terminal[child] = DRAW;
+                child++;
+            }
+            childCount[node] = (short) count;
+            firstChild.set(node, first);
+            return true;
+        }
+
+        /**
+         * Select the child of a node with the best UCT value, an unvisited child first
+         * @param node the index of the node
+         * @param first the index of the first child of the node
+         * @return the index of the selected child
+         */
+        private int select(int node, int first) {
+            double logVisits = Math.log(visits.get(node));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCount[node]; child++) {
+                long n = visits.get(child);
+                if (n == 0)
+                    return child;
+                double value = wins.get(child) / (2.0 * n) + EXPLORATION * Math.sqrt(logVisits / n);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Play a batch of random games from the current position to their end, undoing their moves afterwards
+         * @param color ordinal of the token color to move
+         * @return the sum of the results for the other color: 2 for a win, 1 for a tie and 0 for a loss
+         */
+        private long playouts(int color) {
+            playouts += batch;
+            if (board instanceof LongBitboard)
+                return playouts((LongBitboard) board, color);
+            int width = board.getWidth();
+            long score = 0;
+            for (int b = 0; b < batch; b++) {
+                int plies = 0;
+                int toMove = color;
+                int result = 1;
+                while (board.getMoveCount() < slots) {
+                    int column = random.nextInt(width);
+                    while (!board.canPlay(column))
+                        column = random.nextInt(width);
+                    board.play(column, toMove);
+                    history[plies++] = column;
+                    if (board.isWinAt(column)) {
+                        result = toMove == color ? 0 : 2;
+                        break;
+                    }
+                    toMove = 1 - toMove;
+                }
+                while (plies > 0)
+                    board.undo(history[--plies]);
+                score += result;
+            }
+            return score;
+        }
+
+        /**
+         * Play a batch of random games from the current position to their end on copies of the tokens
+         * @param bits the bitboard at the current position
+         * @param color ordinal of the token color to move
+         * @return the sum of the results for the other color: 2 for a win, 1 for a tie and 0 for a loss
+         */
+        private long playouts(LongBitboard bits, int color) {
+            int height = bits.getHeight();
+            int width = bits.getWidth();
+            int winLength = bits.getWinLength();
+            for (int column = 0; column < width; column++)
+                leafHeights[column] = bits.getColumnHeight(column);
+            long score = 0;
+            for (int b = 0; b < batch; b++) {
+                /* the tokens of the color to move and of the other one, swapped after every move */
+                long own = bits.getTokens(color);
+                long other = bits.getTokens(1 - color);
+                System.arraycopy(leafHeights, 0, columnHeights, 0, width);
+                int moves = bits.getMoveCount();
+                int result = 1;
+                while (moves < slots) {
+                    int column = random.nextInt(width);
+                    while (columnHeights[column] == height)
+                        column = random.nextInt(width);
+                    own |= 1L << (column * (height + 1) + columnHeights[column]++);
+                    if (hasLine(own, height, winLength)) {
+                        result = (moves - bits.getMoveCount()) % 2 == 0 ? 0 : 2;
+                        break;
+                    }
+                    moves++;
+                    long swap = own;
+                    own = other;
+                    other = swap;
+                }
+                score += result;
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Check whether the tokens of a color hold a line of the win length in any direction
+     * @param bits the tokens of the color, in the layout of {@link LongBitboard}
+     * @param height the height of the grid
+     * @param winLength the number of aligned tokens needed to win
+     * @return true if the tokens hold a line
+     */
+    private static boolean hasLine(long bits, int height, int winLength) {
+        return hasRun(bits, 1, winLength) || hasRun(bits, height + 1, winLength) ||
+                hasRun(bits, height, winLength) || hasRun(bits, height + 2, winLength);
+    }
+
+    /**
+     * Check whether bits hold a run of consecutive bits along one direction, doubling the run length at every step
+     * @param bits the tokens of a color
+     * @param shift the distance between two neighbouring slots in the direction
+     * @param length the length of the run
+     * @return true if the bits hold the given number of consecutive bits
+     */
+    private static boolean hasRun(long bits, int shift, int length) {
+        /* starts holds every bit that is the lowest of run consecutive set bits */
+        long starts = bits;
+        int run = 1;
+        while (2 * run <= length) {
+            starts &= run * shift < Long.SIZE ? starts >>> run * shift : 0L;
+            run *= 2;
+        }
+        /* two overlapping runs cover the remaining length */
+        if (run < length)
+            starts &= (length - run) * shift < Long.SIZE ? starts >>> (length - run) * shift : 0L;
+        return starts != 0;
+    }
+}
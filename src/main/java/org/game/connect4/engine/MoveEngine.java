@@ -0,0 +1,27 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.ConnectFourGame;
+
+/**
+ * MoveEngine picks the move of a computer player.
+ * Engines search the current position of a game for its current player and never change the game itself.
+ */
+public interface MoveEngine {
+    /**
+     * Search the current position of a game for the current player
+     * @param game the game to search
+     * @return the result of the search, including the best move found
+     * @throws IllegalStateException if no move can be played in the game
+     */
+    SearchResult search(ConnectFourGame game);
+
+    /**
+     * Pick the move of the current player of a game
+     * @param game the game to search
+     * @return the column number (starting from 1...) to play
+     * @throws IllegalStateException if no move can be played in the game
+     */
+    default int selectMove(ConnectFourGame game) {
+        return search(game).getBestMove();
+    }
+}
@@ -0,0 +1,117 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.ConnectFourGame;
+
+/**
+ * NegamaxEngine is the built-in engine for computer players.
+ * It runs a negamax search with alpha-beta pruning and iterative deepening on a copy of the game's bitboard,
+ * making and unmaking moves in place. Columns are tried from the center outwards,
+ * and the best move of the previous iteration is tried first at the root.
+ * Positions beyond the search horizon are scored by how many possible winning lines run through each token.
+ * With a {@link TranspositionTable}, results of positions reached through different move orders are reused
+ * and the best move stored for a position is tried first.
+ * An engine can be shared between threads, every search keeps its own state apart from the shared table.
+ */
+public class NegamaxEngine implements MoveEngine {
+    /**
+     * Score of a win on the next move, a win n plies ahead is scored WIN_SCORE - n
+     */
+    public static final int WIN_SCORE = 1_000_000;
+    /**
+     * Scores beyond this threshold are forced wins or losses
+     */
+    public static final int WIN_THRESHOLD = WIN_SCORE / 2;
+    /**
+     * Budgets of every search
+     */
+    private final SearchLimits limits;
+    /**
+     * Table shared by every search of this engine, or null
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Constructs a NegamaxEngine with the default search limits
+     */
+    public NegamaxEngine() {
+        this(SearchLimits.DEFAULT);
+    }
+
+    /**
+     * Constructs a NegamaxEngine with the given search limits
+     * @param limits budgets of every search
+     */
+    public NegamaxEngine(SearchLimits limits) {
+        this(limits, null);
+    }
+
+    /**
+     * Constructs a NegamaxEngine with the given search limits and transposition table
+     * @param limits budgets of every search
+     * @param table table shared by every search of this engine, or null to search without one
+     */
+    public NegamaxEngine(SearchLimits limits, TranspositionTable table) {
+        this.limits = limits;
+        this.table = table;
+    }
+
+    /**
+     * Get the search limits
+     * @return budgets of every search
+     */
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Get the transposition table
+     * @return table shared by every search of this engine, or null
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        long start = System.nanoTime();
+        SearchControl control = new SearchControl(limits, start);
+        AlphaBetaSearch search = new AlphaBetaSearch(game.getGameGrid().getBitboard().copy(), table, false, control);
+        int color = game.getCurrentPlayer().getTokenColor().ordinal();
+
+        int[] rootMoves = search.rootMoves();
+        if (rootMoves.length == 0)
+            throw new IllegalStateException("No move can be played in this game.");
+        int winningMove = search.winningMove(color);
+        if (winningMove >= 0)
+            return new SearchResult(winningMove + 1, WIN_SCORE - 1, 1, 0, System.nanoTime() - start);
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        int maxDepth = search.maxDepth(limits);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int alpha = -Integer.MAX_VALUE;
+            int iterationBest = 0;
+            for (int i = 0; i < rootMoves.length; i++) {
+                int score = search.searchMove(rootMoves[i], color, depth, alpha, Integer.MAX_VALUE);
+                if (control.isStopped())
+                    break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (control.isStopped())
+                break;
+            bestMove = rootMoves[iterationBest];
+            bestScore = alpha;
+            completedDepth = depth;
+            /* try the best move first in the next iteration */
+            AlphaBetaSearch.moveToFront(rootMoves, iterationBest);
+            control.arm();
+            if (Math.abs(bestScore) >= WIN_THRESHOLD)
+                break;
+        }
+        return new SearchResult(bestMove + 1, bestScore, completedDepth, search.getNodes(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,19 @@
+package org.game.connect4.engine;
+
+/**
+ * Outcome enumerates the game-theoretic values of a position for the player to move.
+ */
+public enum Outcome {
+    /**
+     * Represents a position the player to move wins with perfect play
+     */
+    WIN,
+    /**
+     * Represents a position the player to move loses against perfect play
+     */
+    LOSS,
+    /**
+     * Represents a position that ends in a tie with perfect play from both players
+     */
+    DRAW
+}
@@ -0,0 +1,229 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.Bitboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelNegamaxEngine splits the root of an iterative deepening negamax search across a ForkJoin pool.
+ * In every iteration the best move of the previous iteration is searched first with a full window.
+ * The other root moves are then searched in parallel, each on its own copy of the bitboard,
+ * against the score of that first move. All the workers share one lock-free {@link TranspositionTable}.
+ * <br/>
+ * Workers only use table results searched to exactly the required depth, and ties between root moves are
+ * broken by search order, so a search bounded only by depth returns the same move and score
+ * whatever the number of threads. The parallelism is bounded by the number of playable columns.
+ */
+public class ParallelNegamaxEngine implements MoveEngine, AutoCloseable {
+    /**
+     * Budgets of every search
+     */
+    private final SearchLimits limits;
+    /**
+     * Table shared by every worker of every search, or null
+     */
+    private final TranspositionTable table;
+    /**
+     * Pool running the root moves
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Whether the pool has been created by this engine and is shut down by {@link #close()}
+     */
+    private final boolean ownsPool;
+
+    /**
+     * Constructs a ParallelNegamaxEngine running on its own pool of the given number of threads
+     * @param limits budgets of every search
+     * @param table table shared by every worker, or null to search without one
+     * @param threads number of threads of the pool
+     */
+    public ParallelNegamaxEngine(SearchLimits limits, TranspositionTable table, int threads) {
+        this(limits, table, new ForkJoinPool(threads), true);
+    }
+
+    /**
+     * Constructs a ParallelNegamaxEngine running on the given pool, which is not shut down by {@link #close()}
+     * @param limits budgets of every search
+     * @param table table shared by every worker, or null to search without one
+     * @param pool pool running the root moves
+     */
+    public ParallelNegamaxEngine(SearchLimits limits, TranspositionTable table, ForkJoinPool pool) {
+        this(limits, table, pool, false);
+    }
+
+    /**
+     * Constructs a ParallelNegamaxEngine
+     * @param limits budgets of every search
+     * @param table table shared by every worker, or null
+     * @param pool pool running the root moves
+     * @param ownsPool whether the pool is shut down by {@link #close()}
+     */
+    private ParallelNegamaxEngine(SearchLimits limits, TranspositionTable table, ForkJoinPool pool, boolean ownsPool) {
+        this.limits = limits;
+        this.table = table;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Get the search limits
+     * @return budgets of every search
+     */
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Get the transposition table
+     * @return table shared by every worker, or null
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the number of threads searching root moves
+     * @return parallelism of the pool
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        long start = System.nanoTime();
+        SearchControl control = new SearchControl(limits, start);
+        Bitboard board = game.getGameGrid().getBitboard();
+        AlphaBetaSearch main = new AlphaBetaSearch(board.copy(), table, true, control);
+        int color = game.getCurrentPlayer().getTokenColor().ordinal();
+
+        int[] rootMoves = main.rootMoves();
+        if (rootMoves.length == 0)
+            throw new IllegalStateException("No move can be played in this game.");
+        int winningMove = main.winningMove(color);
+        if (winningMove >= 0)
+            return new SearchResult(winningMove + 1, NegamaxEngine.WIN_SCORE - 1, 1, 0, System.nanoTime() - start);
+
+        /* one worker per root move after the first, each on its own copy of the board */
+        AlphaBetaSearch[] workers = new AlphaBetaSearch[rootMoves.length];
+        workers[0] = main;
+        for (int i = 1; i < workers.length; i++)
+            workers[i] = new AlphaBetaSearch(board.copy(), table, true, control);
+        int[] scores = new int[rootMoves.length];
+        List<Callable<Void>> tasks = new ArrayList<>(rootMoves.length - 1);
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        int maxDepth = main.maxDepth(limits);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int first = main.searchMove(rootMoves[0], color, depth, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+            if (control.isStopped())
+                break;
+            tasks.clear();
+            for (int i = 1; i < rootMoves.length; i++) {
+                int index = i;
+                int iterationDepth = depth;
+                tasks.add(() -> {
+                    scores[index] = workers[index].searchMove(rootMoves[index], color, iterationDepth,
+                            first, Integer.MAX_VALUE);
+                    return null;
+                });
+            }
+            awaitAll(pool.invokeAll(tasks));
+            if (control.isStopped())
+                break;
+            /* moves failing low score at most the first move, so the first strictly better move in order wins */
+            int iterationBest = 0;
+            int alpha = first;
+            for (int i = 1; i < rootMoves.length; i++) {
+                if (scores[i] > alpha) {
+                    alpha = scores[i];
+                    iterationBest = i;
+                }
+            }
+            bestMove = rootMoves[iterationBest];
+            bestScore = alpha;
+            completedDepth = depth;
+            AlphaBetaSearch.moveToFront(rootMoves, iterationBest);
+            control.arm();
+            if (Math.abs(bestScore) >= NegamaxEngine.WIN_THRESHOLD)
+                break;
+        }
+        long nodes = 0;
+        for (AlphaBetaSearch worker : workers)
+            nodes += worker.getNodes();
+        return new SearchResult(bestMove + 1, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Wait for the workers of a search, so that a failed worker fails the search
+     * instead of leaving partial or earlier results behind
+     * @param results the results of the workers
+     * @throws IllegalStateException if the search has been interrupted, or a worker has failed with a checked exception
+     */
+    static void awaitAll(List<Future<Void>> results) {
+        try {
+            for (Future<Void> result : results)
+                result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The search has been interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Shut down the pool if it has been created by this engine
+     */
+    @Override
+    public void close() {
+        if (ownsPool)
+            pool.shutdown();
+    }
+
+    /**
+     * Measure how a fixed-depth search of a position scales with the number of threads.
+     * The thread count doubles from 1 up to maxThreads, and every run starts from an empty table of the given size.
+     * @param game the game whose current position is searched
+     * @param depth depth of the search in plies
+     * @param maxThreads largest number of threads to measure
+     * @param tableMegabytes size of the table of every run in megabytes
+     * @return a report with one line per thread count, giving the time, the nodes per second,
+     *         the speedup over a single thread and the move found
+     */
+    public static String scalingReport(ConnectFourGame game, int depth, int maxThreads, int tableMegabytes) {
+        StringBuilder report = new StringBuilder();
+        long baseline = 0;
+        int threads = 1;
+        while (true) {
+            SearchResult result;
+            try (ParallelNegamaxEngine engine = new ParallelNegamaxEngine(SearchLimits.ofDepth(depth),
+                    TranspositionTable.ofMegabytes(tableMegabytes), threads)) {
+                result = engine.search(game);
+            }
+            if (threads == 1)
+                baseline = result.getElapsedNanos();
+            report.append(String.format(Locale.ROOT, "threads=%d time=%.1fms nodes=%d nps=%d speedup=%.2fx move=%d score=%d%n",
+                    threads, result.getElapsedNanos() / 1e6, result.getNodes(), result.getNodesPerSecond(),
+                    (double) baseline / result.getElapsedNanos(), result.getBestMove(), result.getScore()));
+            if (threads >= maxThreads)
+                break;
+            threads = Math.min(threads * 2, maxThreads);
+        }
+        return report.toString();
+    }
+}
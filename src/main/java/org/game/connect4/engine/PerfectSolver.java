@@ -0,0 +1,411 @@
+package org.game.connect4.engine;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.model.LongBitboard;
+import org.game.connect4.util.GameConstants;
+
+/**
+ * PerfectSolver proves the game-theoretic value of a position, for grids that fit into a {@link LongBitboard}
+ * and are won by four consecutive tokens.
+ * <br/>
+ * The position is kept as two longs, the tokens of the player to move and the mask of all tokens,
+ * and searched with negamax and alpha-beta pruning through null-window searches that narrow the range
+ * of possible scores until it is exact. Moves that let the opponent win at once are never searched,
+ * the others are tried in order of the number of winning threats they create, then from the center outwards.
+ * Bounds are kept in a {@link TranspositionTable} under the exact key of the position mixed with the grid dimensions,
+ * so solvers of different grids can share a table.
+ * <br/>
+ * A solver can also act as a {@link MoveEngine} for a perfect computer player.
+ * It is not thread-safe, but solvers can share a table.
+ */
+public class PerfectSolver implements MoveEngine {
+    /**
+     * Default size of the table in megabytes
+     */
+    private static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    /**
+     * Table of the bounds of solved positions
+     */
+    private final TranspositionTable table;
+    /**
+     * Height of the grid being solved
+     */
+    private int height;
+    /**
+     * Width of the grid being solved
+     */
+    private int width;
+    /**
+     * Number of slots of the grid being solved
+     */
+    private int slots;
+    /**
+     * One bit at the bottom of every column
+     */
+    private long bottomMask;
+    /**
+     * Every slot of the grid
+     */
+    private long boardMask;
+    /**
+     * Key of the dimensions of the grid, XOR-ed into the table keys, mixed the way {@link AlphaBetaSearch} mixes it
+     */
+    private long dimensionKey;
+    /**
+     * Column indexes in search order
+     */
+    private int[] order;
+    /**
+     * Tokens of the player to move
+     */
+    private long current;
+    /**
+     * Tokens of both players
+     */
+    private long mask;
+    /**
+     * Number of tokens on the board
+     */
+    private int moves;
+    /**
+     * Candidate moves of every ply, reused between nodes
+     */
+    private long[][] moveBuffer;
+    /**
+     * Ordering scores of the candidate moves of every ply
+     */
+    private int[][] scoreBuffer;
+    /**
+     * Number of positions visited by the current solve
+     */
+    private long nodes;
+
+    /**
+     * Constructs a PerfectSolver with its own table of the default size
+     */
+    public PerfectSolver() {
+        this(TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Constructs a PerfectSolver
+     * @param table table of the bounds of solved positions, kept between solves
+     */
+    public PerfectSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Get the transposition table
+     * @return table of the bounds of solved positions
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Solve the current position of a game for the current player
+     * @param game the game to solve, which is not changed
+     * @return the proven value and the best move of the position
+     * @throws IllegalArgumentException if the grid does not fit into a long or is not won by four tokens
+     * @throws IllegalStateException if no move can be played in the game
+     */
+    public SolverResult solve(ConnectFourGame game) {
+        long start = System.nanoTime();
+        load(game);
+        if (moves == slots)
+            throw new IllegalStateException("No move can be played in this game.");
+        nodes = 0;
+
+        int score;
+        int bestColumn = -1;
+        long winning = winningPosition(current, mask) & possible();
+        if (winning != 0) {
+            score = (slots + 1 - moves) / 2;
+            bestColumn = column(winning & -winning);
+        }
+        else {
+            score = solveScore();
+            /* the best move is the first one in search order whose score reaches the score of the position */
+            long candidates = nonLosingMoves();
+            for (int column : order) {
+                long move = candidates & columnMask(column);
+                if (move == 0)
+                    continue;
+                play(move);
+                int moveScore = -negamax(-score, -score + 1);
+                undo(move);
+                if (moveScore >= score) {
+                    bestColumn = column;
+                    break;
+                }
+            }
+            /* every move loses at once, any move will do */
+            if (bestColumn < 0)
+                bestColumn = column(Long.lowestOneBit(possible()));
+        }
+        Outcome outcome = score > 0 ? Outcome.WIN : score < 0 ? Outcome.LOSS : Outcome.DRAW;
+        return new SolverResult(bestColumn + 1, outcome, distance(score), score, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Solve the current position of a game, reporting the proven value as a search score:
+     * a win n plies ahead is scored {@link NegamaxEngine#WIN_SCORE} - n, a loss the opposite and a draw 0
+     * @param game the game to solve, which is not changed
+     * @return the result of the solve
+     * @throws IllegalArgumentException if the grid does not fit into a long or is not won by four tokens
+     * @throws IllegalStateException if no move can be played in the game
+     */
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        SolverResult result = solve(game);
+        int score = result.getOutcome() == Outcome.WIN ? NegamaxEngine.WIN_SCORE - result.getDistance() :
+                result.getOutcome() == Outcome.LOSS ? result.getDistance() - NegamaxEngine.WIN_SCORE : 0;
+        return new SearchResult(result.getBestMove(), score, slots - moves, result.getNodes(), result.getElapsedNanos());
+    }
+
+    /**
+     * Find the exact score of the position by narrowing the range of possible scores with null-window searches
+     * @return the score of the position
+     */
+    private int solveScore() {
+        int min = -(slots - moves) / 2;
+        int max = (slots + 1 - moves) / 2;
+        while (min < max) {
+            int median = min + (max - min) / 2;
+            /* probe closer to 0 first, where the searches are the cheapest */
+            if (median <= 0 && min / 2 < median)
+                median = min / 2;
+            else if (median >= 0 && max / 2 > median)
+                median = max / 2;
+            int score = negamax(median, median + 1);
+            if (score <= median)
+                max = score;
+            else
+                min = score;
+        }
+        return min;
+    }
+
+    /**
+     * Search a position where the player to move can not win at once
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return the score of the position if it lies within the bounds, otherwise a bound on the same side
+     */
+    private int negamax(int alpha, int beta) {
+        nodes++;
+        long next = nonLosingMoves();
+        if (next == 0)
+            return -(slots - moves) / 2;
+        if (moves >= slots - 2)
+            return 0;
+        /* the opponent can not win on the next move */
+        int min = -(slots - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta)
+                return alpha;
+        }
+        /* the player to move can not win on the next move */
+        int max = (slots - 1 - moves) / 2;
+        long key = (current + mask) ^ dimensionKey;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.NONE) {
+            int stored = TranspositionTable.score(entry);
+            if (TranspositionTable.flag(entry) == TranspositionTable.UPPER_BOUND) {
+                if (stored < max)
+                    max = stored;
+            }
+            else if (stored > alpha) {
+                alpha = stored;
+                if (alpha >= beta)
+                    return alpha;
+            }
+        }
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta)
+                return beta;
+        }
+
+        long[] candidates = moveBuffer[moves];
+        int[] scores = scoreBuffer[moves];
+        int count = 0;
+        for (int i = order.length - 1; i >= 0; i--) {
+            long move = next & columnMask(order[i]);
+            if (move == 0)
+                continue;
+            int threats = Long.bitCount(winningPosition(current | move, mask));
+            /* insertion sort by decreasing threats, ties keep the center-first order */
+            int j = count++;
+            while (j > 0 && scores[j - 1] > threats) {
+                candidates[j] = candidates[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            candidates[j] = move;
+            scores[j] = threats;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            long move = candidates[i];
+            play(move);
+            int score = -negamax(-beta, -alpha);
+            undo(move);
+            if (score >= beta) {
+                table.store(key, 0, TranspositionTable.LOWER_BOUND, score, -1);
+                return score;
+            }
+            if (score > alpha)
+                alpha = score;
+        }
+        table.store(key, 0, TranspositionTable.UPPER_BOUND, alpha, -1);
+        return alpha;
+    }
+
+    /**
+     * Load the position of a game and prepare the masks of its dimensions
+     * @param game the game
+     * @throws IllegalArgumentException if the grid does not fit into a long or is not won by four tokens
+     */
+    private void load(ConnectFourGame game) {
+        Bitboard board = game.getGameGrid().getBitboard();
+        if (!(board instanceof LongBitboard))
+            throw new IllegalArgumentException("Only grids where (height + 1) * width is at most 64 can be solved.");
+        if (board.getWinLength() != GameConstants.DEFAULT_WIN_LENGTH)
+            throw new IllegalArgumentException("Only grids won by " + GameConstants.DEFAULT_WIN_LENGTH +
+                    " consecutive tokens can be solved.");
+        LongBitboard bits = (LongBitboard) board;
+        if (bits.getHeight() != height || bits.getWidth() != width || order == null) {
+            height = bits.getHeight();
+            width = bits.getWidth();
+            slots = height * width;
+            bottomMask = 0L;
+            for (int column = 0; column < width; column++)
+                bottomMask |= 1L << (column * (height + 1));
+            boardMask = bottomMask * ((1L << height) - 1);
+            dimensionKey = ((long) GameConstants.DEFAULT_WIN_LENGTH << 48 | (long) height << 32 | width)
+                    * 0xC2B2AE3D27D4EB4FL;
+            order = AlphaBetaSearch.centerFirstOrder(width);
+            moveBuffer = new long[slots + 1][width];
+            scoreBuffer = new int[slots + 1][width];
+        }
+        int color = game.getCurrentPlayer().getTokenColor().ordinal();
+        current = bits.getTokens(color);
+        mask = bits.getTokens(0) | bits.getTokens(1);
+        moves = bits.getMoveCount();
+    }
+
+    /**
+     * Get the number of plies until the end of the game for a score
+     * @param score the score of the position
+     * @return plies until the winning move, or until the grid is full for a draw
+     */
+    private int distance(int score) {
+        if (score == 0)
+            return slots - moves;
+        int winner = score > 0 ? moves & 1 : 1 - (moves & 1);
+        /* number of tokens on the board when the winning move is played, with the parity of the winner */
+        int last = slots + 1 - 2 * Math.abs(score);
+        if ((last & 1) != winner)
+            last--;
+        return last - moves + 1;
+    }
+
+    /**
+     * Play a move for the player to move, who then becomes the opponent
+     * @param move the bit of the slot of the move
+     */
+    private void play(long move) {
+        current ^= mask;
+        mask |= move;
+        moves++;
+    }
+
+    /**
+     * Take back the last move
+     * @param move the bit of the slot of the move
+     */
+    private void undo(long move) {
+        mask ^= move;
+        current ^= mask;
+        moves--;
+    }
+
+    /**
+     * Get the playable slots, one per column that is not full
+     * @return the bits of the playable slots
+     */
+    private long possible() {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Get the playable slots which do not let the opponent win on the next move
+     * @return the bits of the slots, or 0 if every move loses
+     */
+    private long nonLosingMoves() {
+        long possible = possible();
+        long opponentWins = winningPosition(current ^ mask, mask);
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            /* two threats of the opponent can not be blocked at once */
+            if ((forced & (forced - 1)) != 0)
+                return 0;
+            possible = forced;
+        }
+        /* never play right below a winning slot of the opponent */
+        return possible & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * Get the empty slots which would complete a line of four of a player
+     * @param position the tokens of the player
+     * @param mask the tokens of both players
+     * @return the bits of the winning slots
+     */
+    private long winningPosition(long position, long mask) {
+        /* vertical */
+        long result = (position << 1) & (position << 2) & (position << 3);
+        result |= alongDirection(position, height + 1);
+        result |= alongDirection(position, height);
+        result |= alongDirection(position, height + 2);
+        return result & (boardMask ^ mask);
+    }
+
+    /**
+     * Get the slots which would complete a line of four of a player along a horizontal or diagonal direction
+     * @param position the tokens of the player
+     * @param shift the distance between two neighbouring slots in the direction
+     * @return the bits of the slots, including slots outside the board
+     */
+    private static long alongDirection(long position, int shift) {
+        long pair = (position << shift) & (position << 2 * shift);
+        long result = pair & (position << 3 * shift);
+        result |= pair & (position >>> shift);
+        pair = (position >>> shift) & (position >>> 2 * shift);
+        result |= pair & (position << shift);
+        result |= pair & (position >>> 3 * shift);
+        return result;
+    }
+
+    /**
+     * Get the slots of a column
+     * @param column the column index
+     * @return the bits of the playable rows of the column
+     */
+    private long columnMask(int column) {
+        return ((1L << height) - 1) << (column * (height + 1));
+    }
+
+    /**
+     * Get the column of a slot
+     * @param bit the bit of the slot
+     * @return the column index
+     */
+    private int column(long bit) {
+        return Long.numberOfTrailingZeros(bit) / (height + 1);
+    }
+}
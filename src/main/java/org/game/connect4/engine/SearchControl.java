@@ -0,0 +1,76 @@
+package org.game.connect4.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SearchControl enforces the budgets of a search, which may be shared by several {@link AlphaBetaSearch} workers.
+ * Workers report their visited positions in batches, so the node budget is enforced approximately.
+ * Budgets are only enforced once the control is armed, which engines do after their first iteration,
+ * so that a search always returns a move.
+ */
+final class SearchControl {
+    /**
+     * Maximum number of visited positions over all workers
+     */
+    private final long maxNodes;
+    /**
+     * Start time of the search, in System.nanoTime() units
+     */
+    private final long start;
+    /**
+     * Maximum duration of the search, in nanoseconds
+     */
+    private final long maxTimeNanos;
+    /**
+     * Number of visited positions reported by the workers
+     */
+    private final AtomicLong nodes = new AtomicLong();
+    /**
+     * Whether the budgets are enforced
+     */
+    private volatile boolean armed;
+    /**
+     * Whether the search has been stopped
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructs the control of a search starting now
+     * @param limits budgets of the search
+     * @param start start time of the search, in System.nanoTime() units
+     */
+    SearchControl(SearchLimits limits, long start) {
+        long maxTime = limits.getMaxTimeMillis();
+        this.maxNodes = limits.getMaxNodes();
+        this.start = start;
+        /* nanoTime has an arbitrary origin, so only elapsed times are compared, never absolute deadlines */
+        this.maxTimeNanos = maxTime > Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : maxTime * 1_000_000;
+    }
+
+    /**
+     * Start enforcing the budgets
+     */
+    void arm() {
+        armed = true;
+    }
+
+    /**
+     * Report a batch of visited positions and check the budgets
+     * @param batch number of positions visited since the last report
+     * @return true if the search has to stop
+     */
+    boolean report(long batch) {
+        long total = nodes.addAndGet(batch);
+        if (armed && (total >= maxNodes || System.nanoTime() - start >= maxTimeNanos))
+            stopped = true;
+        return stopped;
+    }
+
+    /**
+     * Check whether the search has been stopped
+     * @return true if the search has to stop
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+}
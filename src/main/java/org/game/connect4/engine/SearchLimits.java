@@ -0,0 +1,91 @@
+package org.game.connect4.engine;
+
+/**
+ * SearchLimits bounds the work a {@link MoveEngine} may spend on a single search.
+ * The search stops at whichever of the depth, node or time budget runs out first.
+ */
+public class SearchLimits {
+    /**
+     * Limits which only bound the search by a think time of 100 milliseconds
+     */
+    public static final SearchLimits DEFAULT = ofTime(100);
+
+    /**
+     * Maximum depth in plies
+     */
+    private final int maxDepth;
+    /**
+     * Maximum number of visited positions
+     */
+    private final long maxNodes;
+    /**
+     * Maximum think time in milliseconds
+     */
+    private final long maxTimeMillis;
+
+    /**
+     * Constructs SearchLimits with the given budgets
+     * @param maxDepth maximum depth in plies, must be positive
+     * @param maxNodes maximum number of visited positions, must be positive
+     * @param maxTimeMillis maximum think time in milliseconds, must be positive
+     * @throws IllegalArgumentException if a budget is not positive
+     */
+    public SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+        if (maxDepth <= 0 || maxNodes <= 0 || maxTimeMillis <= 0)
+            throw new IllegalArgumentException("Search limits should be > 0.");
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * Constructs SearchLimits bounded only by depth
+     * @param maxDepth maximum depth in plies
+     * @return the search limits
+     */
+    public static SearchLimits ofDepth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs SearchLimits bounded only by the number of visited positions
+     * @param maxNodes maximum number of visited positions
+     * @return the search limits
+     */
+    public static SearchLimits ofNodes(long maxNodes) {
+        return new SearchLimits(Integer.MAX_VALUE, maxNodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs SearchLimits bounded only by think time
+     * @param maxTimeMillis maximum think time in milliseconds
+     * @return the search limits
+     */
+    public static SearchLimits ofTime(long maxTimeMillis) {
+        return new SearchLimits(Integer.MAX_VALUE, Long.MAX_VALUE, maxTimeMillis);
+    }
+
+    /**
+     * Get the maximum depth
+     * @return maximum depth in plies
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Get the maximum number of visited positions
+     * @return maximum number of visited positions
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Get the maximum think time
+     * @return maximum think time in milliseconds
+     */
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+}
@@ -0,0 +1,92 @@
+package org.game.connect4.engine;
+
+/**
+ * SearchResult holds the outcome of a search of a {@link MoveEngine}.
+ */
+public class SearchResult {
+    /**
+     * Best column number (starting from 1...) found by the search
+     */
+    private final int bestMove;
+    /**
+     * Score of the best move from the point of view of the player to move
+     */
+    private final int score;
+    /**
+     * Deepest completed iteration in plies
+     */
+    private final int depth;
+    /**
+     * Number of visited positions
+     */
+    private final long nodes;
+    /**
+     * Time spent searching in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a SearchResult with the given values
+     * @param bestMove best column number (starting from 1...)
+     * @param score score of the best move from the point of view of the player to move
+     * @param depth deepest completed iteration in plies
+     * @param nodes number of visited positions
+     * @param elapsedNanos time spent searching in nanoseconds
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the best move
+     * @return best column number (starting from 1...)
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Get the score of the best move.
+     * Scores above {@link NegamaxEngine#WIN_THRESHOLD} are forced wins and scores below its negation are forced losses.
+     * @return score from the point of view of the player to move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the deepest completed iteration
+     * @return depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Get the number of visited positions
+     * @return number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the time spent searching
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the search speed
+     * @return visited positions per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+    }
+}
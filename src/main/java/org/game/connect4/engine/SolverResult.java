@@ -0,0 +1,103 @@
+package org.game.connect4.engine;
+
+/**
+ * SolverResult holds the proven value of a position solved by a {@link PerfectSolver}.
+ */
+public class SolverResult {
+    /**
+     * Best column number (starting from 1...) of the position
+     */
+    private final int bestMove;
+    /**
+     * Game-theoretic value of the position for the player to move
+     */
+    private final Outcome outcome;
+    /**
+     * Number of plies until the game ends with perfect play, including the last move
+     */
+    private final int distance;
+    /**
+     * Score of the position for the player to move: the number of own moves left unplayed after a win,
+     * plus one, negated for a loss and 0 for a draw
+     */
+    private final int score;
+    /**
+     * Number of visited positions
+     */
+    private final long nodes;
+    /**
+     * Time spent solving in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a SolverResult with the given values
+     * @param bestMove best column number (starting from 1...)
+     * @param outcome game-theoretic value of the position for the player to move
+     * @param distance number of plies until the game ends with perfect play
+     * @param score score of the position for the player to move
+     * @param nodes number of visited positions
+     * @param elapsedNanos time spent solving in nanoseconds
+     */
+    public SolverResult(int bestMove, Outcome outcome, int distance, int score, long nodes, long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.outcome = outcome;
+        this.distance = distance;
+        this.score = score;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the best move
+     * @return best column number (starting from 1...); a move delaying the loss the longest in a lost position
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Get the game-theoretic value of the position
+     * @return value for the player to move
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Get the number of plies until the game ends with perfect play
+     * @return plies until the winning move, or until the grid is full for a draw
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Get the score of the position
+     * @return positive for a win, the faster the higher, negative for a loss and 0 for a draw
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the number of visited positions
+     * @return number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the time spent solving
+     * @return time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + " in " + distance + " plies, best move " + bestMove;
+    }
+}
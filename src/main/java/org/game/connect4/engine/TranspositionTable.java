@@ -0,0 +1,247 @@
+package org.game.connect4.engine;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable remembers the results of searched positions, so that positions reached
+ * through different move orders are not searched again.
+ * The table is open-addressed into buckets of two slots kept in two primitive long arrays, without any per-entry object.
+ * The first slot of a bucket keeps the deepest result and the second slot always takes the newest one.
+ * Each slot stores its key XOR-ed with its data, so a slot torn by concurrent writers never matches a probe
+ * and the table can be shared between search threads without locking. The counters are not synchronized
+ * and only approximate when the table is shared.
+ */
+public class TranspositionTable {
+    /**
+     * Flag of an entry holding the exact score of a position
+     */
+    public static final int EXACT = 1;
+    /**
+     * Flag of an entry holding a lower bound of the score of a position
+     */
+    public static final int LOWER_BOUND = 2;
+    /**
+     * Flag of an entry holding an upper bound of the score of a position
+     */
+    public static final int UPPER_BOUND = 3;
+    /**
+     * Value returned by {@link #probe(long)} when the position is not in the table
+     */
+    public static final long NONE = 0L;
+    /**
+     * Memory taken by a single slot in bytes
+     */
+    public static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+    /**
+     * Keys of the slots, XOR-ed with their data
+     */
+    private final long[] keys;
+    /**
+     * Packed data of the slots, see {@link #pack(int, int, int, int)}
+     */
+    private final long[] data;
+    /**
+     * Mask selecting a bucket from a key
+     */
+    private final int bucketMask;
+    /**
+     * Number of probes that found the position
+     */
+    private long hits;
+    /**
+     * Number of probes that did not find the position
+     */
+    private long misses;
+    /**
+     * Number of misses where the bucket was taken by other positions
+     */
+    private long collisions;
+
+    /**
+     * Constructs a TranspositionTable taking at most the given amount of memory.
+     * The number of slots is the largest power of two that fits into the memory cap.
+     * @param maxBytes memory cap in bytes, at least two slots
+     * @throws IllegalArgumentException if the memory cap is too small
+     */
+    public TranspositionTable(long maxBytes) {
+        if (maxBytes < 2L * BYTES_PER_ENTRY)
+            throw new IllegalArgumentException("A transposition table needs at least " + 2 * BYTES_PER_ENTRY + " bytes.");
+        long entries = Long.highestOneBit(Math.min(maxBytes / BYTES_PER_ENTRY, 1L << 30));
+        this.keys = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.bucketMask = (int) entries / 2 - 1;
+    }
+
+    /**
+     * Constructs a TranspositionTable taking at most the given number of megabytes
+     * @param megabytes memory cap in megabytes
+     * @return the transposition table
+     */
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        return new TranspositionTable(megabytes * 1024L * 1024L);
+    }
+
+    /**
+     * Look a position up
+     * @param key the key of the position
+     * @return the packed entry of the position, or {@link #NONE} if the position is not in the table
+     */
+    public long probe(long key) {
+        int slot = bucket(key);
+        long first = data[slot];
+        if (first != NONE && (keys[slot] ^ first) == key) {
+            hits++;
+            return first;
+        }
+        long second = data[slot + 1];
+        if (second != NONE && (keys[slot + 1] ^ second) == key) {
+            hits++;
+            return second;
+        }
+        misses++;
+        if (first != NONE)
+            collisions++;
+        return NONE;
+    }
+
+    /**
+     * Store the result of a searched position
+     * @param key the key of the position
+     * @param depth the remaining depth the position was searched with
+     * @param flag one of {@link #EXACT}, {@link #LOWER_BOUND} and {@link #UPPER_BOUND}
+     * @param score the score of the position
+     * @param move the best column index (starting from 0...) of the position, or -1 if unknown
+     */
+    public void store(long key, int depth, int flag, int score, int move) {
+        long entry = pack(depth, flag, score, move);
+        int slot = bucket(key);
+        long first = data[slot];
+        if (first == NONE || (keys[slot] ^ first) == key || depth >= depth(first)) {
+            data[slot] = entry;
+            keys[slot] = key ^ entry;
+        }
+        else {
+            data[slot + 1] = entry;
+            keys[slot + 1] = key ^ entry;
+        }
+    }
+
+    /**
+     * Pack the data of an entry into a long: the score in the low 32 bits, followed by 16 bits of depth,
+     * 2 bits of flag and 14 bits of move + 1
+     * @param depth the remaining depth
+     * @param flag the bound type
+     * @param score the score
+     * @param move the best column index or -1
+     * @return the packed entry, never {@link #NONE}
+     */
+    private static long pack(int depth, int flag, int score, int move) {
+        return (score & 0xFFFFFFFFL) | ((long) (depth & 0xFFFF) << 32) | ((long) flag << 48) | ((long) (move + 1) << 50);
+    }
+
+    /**
+     * Get the score of an entry
+     * @param entry a packed entry returned by {@link #probe(long)}
+     * @return the stored score
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Get the depth of an entry
+     * @param entry a packed entry returned by {@link #probe(long)}
+     * @return the stored remaining depth
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFFFF;
+    }
+
+    /**
+     * Get the flag of an entry
+     * @param entry a packed entry returned by {@link #probe(long)}
+     * @return one of {@link #EXACT}, {@link #LOWER_BOUND} and {@link #UPPER_BOUND}
+     */
+    public static int flag(long entry) {
+        return (int) (entry >>> 48) & 0x3;
+    }
+
+    /**
+     * Get the best move of an entry
+     * @param entry a packed entry returned by {@link #probe(long)}
+     * @return the stored column index (starting from 0...) or -1 if unknown
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> 50) - 1;
+    }
+
+    /**
+     * Get the index of the first slot of the bucket of a key
+     * @param key the key of a position
+     * @return index of the first slot
+     */
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+
+    /**
+     * Remove every entry and reset the counters
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, NONE);
+        hits = 0;
+        misses = 0;
+        collisions = 0;
+    }
+
+    /**
+     * Get the number of slots
+     * @return number of slots
+     */
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /**
+     * Get the memory taken by the slots
+     * @return memory in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) data.length * BYTES_PER_ENTRY;
+    }
+
+    /**
+     * Get the number of probes that found the position
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of probes that did not find the position
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of misses where the bucket was taken by other positions
+     * @return number of collisions
+     */
+    public long getCollisions() {
+        return collisions;
+    }
+
+    /**
+     * Get the share of probes that found the position
+     * @return hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+}
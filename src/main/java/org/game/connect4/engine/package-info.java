@@ -0,0 +1,4 @@
+/**
+ * The package includes the engines which pick the moves of computer players in the Connect Four API.
+ */
+package org.game.connect4.engine;
@@ -0,0 +1,162 @@
+package org.game.connect4.event;
+
+import org.game.connect4.model.GridPosition;
+import org.game.connect4.model.GridSnapshot;
+import org.game.connect4.util.GameStatus;
+import org.game.connect4.util.TokenColor;
+
+import java.util.List;
+
+/**
+ * GameEvent is an immutable event of a Connect Four game. It carries a {@link GridSnapshot} of the grid
+ * right after the event, so subscribers on other threads can render or analyse the grid without touching the game.
+ * The ID of the game tells apart the events of the games sharing a publisher.
+ */
+public final class GameEvent {
+    /**
+     * Type enumerates the kinds of events of a game.
+     */
+    public enum Type {
+        /**
+         * A token has been dropped into a column
+         */
+        MOVE_PLAYED,
+        /**
+         * The last move has been taken back
+         */
+        MOVE_UNDONE,
+        /**
+         * A status check has found a status different from the previous one
+         */
+        STATUS_CHANGED,
+        /**
+         * A status check has found that the game is won or tied, after the status change
+         */
+        GAME_OVER
+    }
+
+    /**
+     * ID of the game of the event
+     */
+    private final long gameId;
+    /**
+     * Kind of the event
+     */
+    private final Type type;
+    /**
+     * Number of moves played after the event
+     */
+    private final int moveCount;
+    /**
+     * Column number (starting from 1...) of the move played or undone, or 0
+     */
+    private final int column;
+    /**
+     * Color of the token played or undone, or null
+     */
+    private final TokenColor color;
+    /**
+     * Status of the game after the event
+     */
+    private final GameStatus status;
+    /**
+     * Winning sequence of a won game, empty otherwise
+     */
+    private final List<GridPosition> winningSequence;
+    /**
+     * Grid after the event
+     */
+    private final GridSnapshot snapshot;
+
+    /**
+     * Constructs a GameEvent
+     * @param gameId ID of the game of the event
+     * @param type kind of the event
+     * @param moveCount number of moves played after the event
+     * @param column column number (starting from 1...) of the move played or undone, or 0
+     * @param color color of the token played or undone, or null
+     * @param status status of the game after the event
+     * @param winningSequence winning sequence of a won game, empty otherwise
+     * @param snapshot grid after the event
+     */
+    public GameEvent(long gameId, Type type, int moveCount, int column, TokenColor color, GameStatus status,
+                     List<GridPosition> winningSequence, GridSnapshot snapshot) {
+        this.gameId = gameId;
+        this.type = type;
+        this.moveCount = moveCount;
+        this.column = column;
+        this.color = color;
+        this.status = status;
+        this.winningSequence = List.copyOf(winningSequence);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get the ID of the game of the event, which is the ID of its session for a hosted game
+     * @return ID of the game
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Get the kind of the event
+     * @return type of the event
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the number of moves played after the event
+     * @return number of moves
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get the column of the move played or undone
+     * @return the column number (starting from 1...), or 0 for a status event
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the color of the token played or undone
+     * @return the color, or null for a status event
+     */
+    public TokenColor getColor() {
+        return color;
+    }
+
+    /**
+     * Get the status of the game after the event
+     * @return status of the game
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the winning sequence of a won game
+     * @return an immutable list of GridPosition sorted by row number, empty unless the game is won
+     */
+    public List<GridPosition> getWinningSequence() {
+        return winningSequence;
+    }
+
+    /**
+     * Get the grid after the event
+     * @return immutable snapshot of the grid
+     */
+    public GridSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return "game=" + gameId + " " + type + " move=" + moveCount + " column=" + column + " color=" + color + " status=" + status;
+    }
+}
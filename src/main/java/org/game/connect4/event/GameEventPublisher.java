@@ -0,0 +1,100 @@
+package org.game.connect4.event;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * GameEventPublisher streams the events of games to {@link Flow.Subscriber}s, which request events at their own pace.
+ * Every subscriber has its own bounded buffer and receives the events on a thread of the executor, so the thread
+ * playing the moves never waits for a subscriber: an event which does not fit into the buffer of a slow subscriber
+ * is dropped for that subscriber and counted. A publisher can serve any number of games, which publish their events
+ * from the thread changing them; every event carries the ID of its game, so games sharing a publisher should have
+ * distinct IDs. {@link #close()} completes every subscription.
+ */
+public class GameEventPublisher implements AutoCloseable {
+    /**
+     * Publisher delivering the events
+     */
+    private final SubmissionPublisher<GameEvent> publisher;
+    /**
+     * Number of events dropped for slow subscribers
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * Handler counting the events dropped for slow subscribers, without retrying them
+     */
+    private final BiPredicate<Flow.Subscriber<? super GameEvent>, GameEvent> onDrop = (subscriber, event) -> {
+        dropped.increment();
+        return false;
+    };
+
+    /**
+     * Constructs a GameEventPublisher delivering on the common pool with the default buffer size
+     */
+    public GameEventPublisher() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * Constructs a GameEventPublisher
+     * @param executor executor delivering the events to the subscribers
+     * @param bufferCapacity maximum number of events buffered for a subscriber, rounded up to a power of two
+     * @throws IllegalArgumentException if the buffer capacity is not positive
+     */
+    public GameEventPublisher(Executor executor, int bufferCapacity) {
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    /**
+     * Subscribe to the events published from now on
+     * @param subscriber the subscriber
+     */
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Publish an event to every subscriber without blocking
+     * @param event the event
+     * @throws IllegalStateException if the publisher is closed
+     */
+    public void publish(GameEvent event) {
+        publisher.offer(event, onDrop);
+    }
+
+    /**
+     * Check whether anyone is subscribed, so that events nobody would receive are not even built
+     * @return true if there is at least one subscriber
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Get the number of current subscribers
+     * @return number of subscribers
+     */
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Get the number of events dropped for subscribers whose buffer was full
+     * @return number of dropped events
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Complete the subscriptions once their buffered events are delivered
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
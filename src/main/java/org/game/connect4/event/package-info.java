@@ -0,0 +1,4 @@
+/**
+ * The package includes the stream of events of a Connect Four game, which subscribers receive with backpressure.
+ */
+package org.game.connect4.event;
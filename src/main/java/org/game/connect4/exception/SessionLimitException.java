@@ -0,0 +1,23 @@
+package org.game.connect4.exception;
+
+/**
+ * This custom exception is thrown when a new game session is refused because the session manager is full.
+ */
+public class SessionLimitException extends IllegalStateException {
+
+    /**
+     * Constructs a SessionLimitException with a default detail message - "Too many game sessions!"
+     */
+    public SessionLimitException() {
+        super("Too many game sessions!");
+    }
+
+    /**
+     * Constructs a SessionLimitException with the specified detail message
+     * A detail message is a String that describes this particular exception
+     * @param message the detail message
+     */
+    public SessionLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package org.game.connect4.exception;
+
+/**
+ * This custom exception is thrown when a game session does not exist, or has been closed or evicted.
+ */
+public class SessionNotFoundException extends IllegalArgumentException {
+
+    /**
+     * Constructs a SessionNotFoundException with a default detail message - "This game session does not exist!"
+     */
+    public SessionNotFoundException() {
+        super("This game session does not exist!");
+    }
+
+    /**
+     * Constructs a SessionNotFoundException with the specified detail message
+     * A detail message is a String that describes this particular exception
+     * @param message the detail message
+     */
+    public SessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+package org.game.connect4.journal;
+
+/**
+ * ForcePolicy tells a {@link MoveJournal} when to force its appended records to the storage device.
+ * Records survive a crash of the process as soon as they are written to the mapped file,
+ * forcing them is what makes them survive a crash of the machine.
+ */
+public final class ForcePolicy {
+    /**
+     * Never force, the operating system writes the records back on its own schedule
+     */
+    public static final ForcePolicy NEVER = new ForcePolicy(0, 0);
+    /**
+     * Force after every record, the slowest and safest policy
+     */
+    public static final ForcePolicy ALWAYS = new ForcePolicy(1, 0);
+
+    /**
+     * Number of records after which the writer crossing the count forces the journal, or 0
+     */
+    private final int records;
+    /**
+     * Interval at which a background thread forces the journal in milliseconds, or 0
+     */
+    private final long intervalMillis;
+
+    /**
+     * Constructs a ForcePolicy
+     * @param records number of records after which the journal is forced, or 0
+     * @param intervalMillis interval at which the journal is forced in milliseconds, or 0
+     */
+    private ForcePolicy(int records, long intervalMillis) {
+        this.records = records;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Get a policy forcing the journal in batches, whichever bound comes first
+     * @param records number of records after which the journal is forced, or 0 for no count bound
+     * @param intervalMillis interval at which the journal is forced in milliseconds, or 0 for no time bound
+     * @return the policy
+     * @throws IllegalArgumentException if a bound is negative
+     */
+    public static ForcePolicy batched(int records, long intervalMillis) {
+        if (records < 0 || intervalMillis < 0)
+            throw new IllegalArgumentException("Force bounds should be >= 0.");
+        return new ForcePolicy(records, intervalMillis);
+    }
+
+    /**
+     * Get the number of records after which the journal is forced
+     * @return number of records, or 0 if the journal is not forced by count
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * Get the interval at which the journal is forced
+     * @return interval in milliseconds, or 0 if the journal is not forced periodically
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+}
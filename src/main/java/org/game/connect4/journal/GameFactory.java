@@ -0,0 +1,40 @@
+package org.game.connect4.journal;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.GameMode;
+
+/**
+ * GameFactory creates the fresh games a {@link MoveJournal} replays its moves into.
+ * The journal does not record the names of the players, a factory can look them up by session ID.
+ */
+@FunctionalInterface
+public interface GameFactory {
+    /**
+     * Factory creating games through {@link ConnectFourInitializer} with the default player names
+     */
+    GameFactory DEFAULT = (session, height, width, winLength, mode) -> {
+        ConnectFourInitializer initializer = new ConnectFourInitializer();
+        switch (mode) {
+            case PLAYER_VS_PLAYER:
+                return initializer.initializePlayerVsPlayer(height, width, winLength,
+                        GameConstants.DEFAULT_PLAYER1, GameConstants.DEFAULT_PLAYER2);
+            case PLAYER_VS_COMPUTER:
+                return initializer.initializePlayerVsComputer(height, width, winLength, GameConstants.DEFAULT_PLAYER1);
+            default:
+                return initializer.initializeComputerVsComputer(height, width, winLength);
+        }
+    };
+
+    /**
+     * Create a game without moves
+     * @param session the ID of the session of the game
+     * @param height height of the grid
+     * @param width width of the grid
+     * @param winLength number of consecutive tokens needed to win
+     * @param mode the game mode
+     * @return a game without moves
+     */
+    ConnectFourGame create(long session, int height, int width, int winLength, GameMode mode);
+}
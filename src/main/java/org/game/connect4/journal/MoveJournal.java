@@ -0,0 +1,336 @@
+package org.game.connect4.journal;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.GameGrid;
+import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.GameMode;
+import org.game.connect4.util.GameStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MoveJournal is an append-only log of game sessions and their moves, kept in a memory-mapped file.
+ * <br/>
+ * Every record takes {@link #RECORD_BYTES} bytes: the session ID, a 32-bit and a 16-bit value, an 8-bit value
+ * and the record type, which is written last so that a record torn by a crash reads as a gap and is skipped.
+ * Writers claim their place with a single atomic add and write straight into the mapped file, without locks
+ * or copies. The file grows by chunks of {@link #CHUNK_BYTES} bytes, the only step taking a lock.
+ * <br/>
+ * The records of a session must be appended by one thread at a time, in the order the moves are played,
+ * as {@link org.game.connect4.session.GameSessionManager} does under the lock of the session.
+ * {@link #replay(GameFactory)} rebuilds the games still in progress by replaying their moves into fresh games.
+ */
+public class MoveJournal implements AutoCloseable {
+    /**
+     * Type of the record starting a session
+     */
+    public static final int START = 1;
+    /**
+     * Type of the record of a move
+     */
+    public static final int MOVE = 2;
+    /**
+     * Type of the record ending a session
+     */
+    public static final int END = 3;
+    /**
+     * Size of a record in bytes
+     */
+    public static final int RECORD_BYTES = 16;
+    /**
+     * Size of a chunk of the file in bytes
+     */
+    public static final int CHUNK_BYTES = 1 << 26;
+    /**
+     * Maximum number of chunks of a journal
+     */
+    private static final int MAX_CHUNKS = 1 << 12;
+    /**
+     * Largest height, width or win length a start record holds, each is written into 16 bits
+     */
+    public static final int MAX_DIMENSION = 0xFFFF;
+    /**
+     * Game modes by ordinal
+     */
+    private static final GameMode[] MODES = GameMode.values();
+
+    /**
+     * Channel of the journal file
+     */
+    private final FileChannel channel;
+    /**
+     * Mapped chunks of the file, created on demand
+     */
+    private final AtomicReferenceArray<MappedByteBuffer> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    /**
+     * Offset of the next record to claim
+     */
+    private final AtomicLong position;
+    /**
+     * Offset up to which the records have been forced
+     */
+    private final AtomicLong forced;
+    /**
+     * When to force the records
+     */
+    private final ForcePolicy policy;
+    /**
+     * Thread forcing the records periodically, or null
+     */
+    private final ScheduledExecutorService forcer;
+    /**
+     * Number of sessions dropped by the last replay because their moves could not be replayed
+     */
+    private volatile int droppedSessions;
+
+    /**
+     * Opens a journal, creating the file if needed. New records are appended after the last record of the file.
+     * @param path the path of the journal file
+     * @param policy when to force the records to the storage device
+     * @throws UncheckedIOException if the file can not be opened or mapped
+     */
+    public MoveJournal(Path path, ForcePolicy policy) {
+        this.policy = policy;
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            for (int i = 0; (long) i * CHUNK_BYTES < size; i++)
+                chunk(i);
+            long end = size - size % RECORD_BYTES;
+            while (end > 0 && typeAt(end - RECORD_BYTES) == 0)
+                end -= RECORD_BYTES;
+            this.position = new AtomicLong(end);
+            this.forced = new AtomicLong(end);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The journal " + path + " can not be opened.", e);
+        }
+        if (policy.getIntervalMillis() > 0) {
+            this.forcer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "connect4-journal-forcer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            forcer.scheduleWithFixedDelay(this::force, policy.getIntervalMillis(), policy.getIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+        else {
+            this.forcer = null;
+        }
+    }
+
+    /**
+     * Append the start of a session
+     * @param session the ID of the session
+     * @param game the game of the session, without moves
+     * @throws IllegalArgumentException if the height, width or win length of the game exceeds {@link #MAX_DIMENSION}
+     */
+    public void appendStart(long session, ConnectFourGame game) {
+        GameGrid grid = game.getGameGrid();
+        if (grid.getHeight() > MAX_DIMENSION || grid.getWidth() > MAX_DIMENSION || grid.getWinLength() > MAX_DIMENSION)
+            throw new IllegalArgumentException("A " + grid.getHeight() + "x" + grid.getWidth() + " game won by "
+                    + grid.getWinLength() + " tokens can not be journaled, every value should be <= " + MAX_DIMENSION + ".");
+        append(START, session, grid.getHeight() | grid.getWinLength() << 16, grid.getWidth(), game.getGameMode().ordinal());
+    }
+
+    /**
+     * Append a move which has been played
+     * @param session the ID of the session
+     * @param ply the index of the move in the game, starting from 0
+     * @param column the column number (starting from 1...) of the move
+     * @param color the ordinal of the token color of the player of the move
+     */
+    public void appendMove(long session, int ply, int column, int color) {
+        append(MOVE, session, ply, column, color);
+    }
+
+    /**
+     * Append the end of a session, whose game is no longer rebuilt by {@link #replay(GameFactory)}
+     * @param session the ID of the session
+     */
+    public void appendEnd(long session) {
+        append(END, session, 0, 0, 0);
+    }
+
+    /**
+     * Append a record
+     * @param type the type of the record
+     * @param session the ID of the session
+     * @param value1 the 32-bit value
+     * @param value2 the 16-bit value
+     * @param value3 the 8-bit value
+     */
+    private void append(int type, long session, int value1, int value2, int value3) {
+        long offset = position.getAndAdd(RECORD_BYTES);
+        MappedByteBuffer buffer = chunk((int) (offset / CHUNK_BYTES));
+        int index = (int) (offset % CHUNK_BYTES);
+        buffer.putLong(index, session);
+        buffer.putInt(index + 8, value1);
+        buffer.putShort(index + 12, (short) value2);
+        buffer.put(index + 14, (byte) value3);
+        buffer.put(index + 15, (byte) type);
+        int records = policy.getRecords();
+        if (records == 1)
+            buffer.force(index, RECORD_BYTES);
+        else if (records > 0 && (offset / RECORD_BYTES + 1) % records == 0)
+            force();
+    }
+
+    /**
+     * Force the records appended so far to the storage device.
+     * The chunk holding the end of the previous force is forced again from its start, which catches the records
+     * that were claimed but still being written then, only the pages written since are actually flushed.
+     */
+    public void force() {
+        long end = position.get();
+        long start = forced.get();
+        if (start >= end)
+            return;
+        for (long offset = start - start % CHUNK_BYTES; offset < end; offset += CHUNK_BYTES)
+            chunk((int) (offset / CHUNK_BYTES)).force(0, (int) (Math.min(offset + CHUNK_BYTES, end) - offset));
+        forced.accumulateAndGet(end, Math::max);
+    }
+
+    /**
+     * Visit every record in append order, skipping the gaps left by records torn by a crash
+     * @param visitor the visitor of the records
+     */
+    public void forEach(RecordVisitor visitor) {
+        long end = position.get();
+        for (long offset = 0; offset < end; offset += RECORD_BYTES) {
+            MappedByteBuffer buffer = chunk((int) (offset / CHUNK_BYTES));
+            int index = (int) (offset % CHUNK_BYTES);
+            int type = buffer.get(index + 15);
+            if (type == 0)
+                continue;
+            visitor.visit(type, buffer.getLong(index), buffer.getInt(index + 8), buffer.getShort(index + 12) & 0xFFFF,
+                    buffer.get(index + 14));
+        }
+    }
+
+    /**
+     * Rebuild the games of the sessions which have been started and neither ended nor finished,
+     * replaying their moves into fresh games. After each move the status of the game is checked and
+     * the turn passes to the other player, as a client playing the game would do.
+     * A session started again replaces the earlier one with the same ID.
+     * A session whose moves do not follow each other, as when a crash has lost a page that was not forced,
+     * is dropped along with its later records, so it does not keep the other sessions from being recovered;
+     * the dropped sessions are counted by {@link #getDroppedSessions()}.
+     * @param factory the factory of the fresh games
+     * @return the games in progress by session ID
+     */
+    public Map<Long, ConnectFourGame> replay(GameFactory factory) {
+        Map<Long, ConnectFourGame> games = new HashMap<>();
+        int[] dropped = new int[1];
+        forEach((type, session, value1, value2, value3) -> {
+            if (type == START) {
+                int winLength = value1 >>> 16;
+                games.put(session, factory.create(session, value1 & 0xFFFF, value2,
+                        winLength == 0 ? GameConstants.DEFAULT_WIN_LENGTH : winLength, MODES[value3]));
+            }
+            else if (type == END) {
+                games.remove(session);
+            }
+            else if (type == MOVE) {
+                ConnectFourGame game = games.get(session);
+                if (game == null)
+                    return;
+                if (value1 != game.getMoveCount() || value3 != game.getCurrentPlayer().getTokenColor().ordinal()
+                        || !game.playMove(value2)) {
+                    /* the later moves of the session are skipped, since it has no game anymore */
+                    games.remove(session);
+                    dropped[0]++;
+                    return;
+                }
+                if (game.checkGameStatus(value2).getGameStatus() == GameStatus.CONTINUE)
+                    game.switchPlayer();
+            }
+        });
+        games.values().removeIf(game -> game.getStatus().getGameStatus() != GameStatus.CONTINUE);
+        droppedSessions = dropped[0];
+        return games;
+    }
+
+    /**
+     * Get the number of sessions dropped by the last replay because their moves could not be replayed
+     * @return number of dropped sessions
+     */
+    public int getDroppedSessions() {
+        return droppedSessions;
+    }
+
+    /**
+     * Get the number of bytes taken by the records
+     * @return offset of the next record
+     */
+    public long getSize() {
+        return position.get();
+    }
+
+    /**
+     * Force the records if the policy asks for it and close the journal
+     * @throws UncheckedIOException if the file can not be closed
+     */
+    @Override
+    public void close() {
+        if (forcer != null)
+            forcer.shutdownNow();
+        if (policy != ForcePolicy.NEVER)
+            force();
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The journal can not be closed.", e);
+        }
+    }
+
+    /**
+     * Get the type of the record at an offset
+     * @param offset the offset of the record
+     * @return the record type, or 0 for a gap
+     */
+    private int typeAt(long offset) {
+        return chunk((int) (offset / CHUNK_BYTES)).get((int) (offset % CHUNK_BYTES) + 15);
+    }
+
+    /**
+     * Get a chunk of the file, mapping it first if needed
+     * @param index the index of the chunk
+     * @return the mapped chunk
+     * @throws IllegalStateException if the journal is full
+     * @throws UncheckedIOException if the chunk can not be mapped
+     */
+    private MappedByteBuffer chunk(int index) {
+        if (index >= MAX_CHUNKS)
+            throw new IllegalStateException("The journal is full, it holds at most " + (long) MAX_CHUNKS * CHUNK_BYTES + " bytes.");
+        MappedByteBuffer chunk = chunks.get(index);
+        if (chunk != null)
+            return chunk;
+        synchronized (chunks) {
+            chunk = chunks.get(index);
+            if (chunk == null) {
+                try {
+                    chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * CHUNK_BYTES, CHUNK_BYTES);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException("The journal can not be extended.", e);
+                }
+                chunks.set(index, chunk);
+            }
+            return chunk;
+        }
+    }
+}
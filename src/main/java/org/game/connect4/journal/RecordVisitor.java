@@ -0,0 +1,22 @@
+package org.game.connect4.journal;
+
+/**
+ * RecordVisitor receives the records of a {@link MoveJournal} in append order, as primitive values.
+ */
+@FunctionalInterface
+public interface RecordVisitor {
+    /**
+     * Visit a record.
+     * For {@link MoveJournal#MOVE} records, value1 is the ply (starting from 0...), value2 the column (starting from 1...)
+     * and value3 the ordinal of the token color of the player. For {@link MoveJournal#START} records, value1 holds
+     * the grid height in its lower 16 bits and the win length in its upper 16 bits, 0 standing for the default
+     * of four, value2 is the grid width and value3 the ordinal of the game mode. {@link MoveJournal#END}
+     * records carry no values.
+     * @param type one of {@link MoveJournal#START}, {@link MoveJournal#MOVE} and {@link MoveJournal#END}
+     * @param session the ID of the session
+     * @param value1 the first value of the record
+     * @param value2 the second value of the record
+     * @param value3 the third value of the record
+     */
+    void visit(int type, long session, int value1, int value2, int value3);
+}
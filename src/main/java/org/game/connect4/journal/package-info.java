@@ -0,0 +1,4 @@
+/**
+ * The package includes the memory-mapped move journal used to recover and replay Connect Four games.
+ */
+package org.game.connect4.journal;
@@ -0,0 +1,223 @@
+package org.game.connect4.metrics;
+
+import org.game.connect4.engine.SearchResult;
+import org.game.connect4.util.GameStatus;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GameMetrics collects the metrics of the games and engines attached to it.
+ * Games are attached through {@link org.game.connect4.ConnectFourGame#setMetrics(GameMetrics)} and engines are
+ * wrapped into a {@link MeteredMoveEngine}. Games and engines without metrics do not measure anything.
+ * <br/>
+ * One instance is meant to be shared by all the games of a process. Recording an event only updates striped
+ * counters and {@link LatencyHistogram}s, without allocating nor locking. The counters only grow;
+ * {@link #snapshot(MetricsSnapshot)} turns them into rates between two snapshots.
+ */
+public class GameMetrics {
+    /**
+     * Game statuses indexed by their ordinal
+     */
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    /**
+     * Time the metrics were created, in System.nanoTime() units
+     */
+    private final long createdNanos = System.nanoTime();
+    /**
+     * Durations of the moves played
+     */
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    /**
+     * Durations of the game status checks
+     */
+    private final LatencyHistogram statusLatency = new LatencyHistogram();
+    /**
+     * Durations of the engine searches
+     */
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    /**
+     * Number of games which have started
+     */
+    private final LongAdder gamesStarted = new LongAdder();
+    /**
+     * Number of finished games indexed by the ordinal of their final status
+     */
+    private final LongAdder[] gamesFinished = new LongAdder[STATUSES.length];
+    /**
+     * Number of positions visited by the engines
+     */
+    private final LongAdder nodes = new LongAdder();
+    /**
+     * Sum of the depths reached by the engine searches
+     */
+    private final LongAdder depths = new LongAdder();
+    /**
+     * Number of transposition table probes of the engines which found the position
+     */
+    private final LongAdder tableHits = new LongAdder();
+    /**
+     * Number of transposition table probes of the engines which did not find the position
+     */
+    private final LongAdder tableMisses = new LongAdder();
+
+    /**
+     * Constructs an empty GameMetrics
+     */
+    public GameMetrics() {
+        for (int i = 0; i < gamesFinished.length; i++)
+            gamesFinished[i] = new LongAdder();
+    }
+
+    /**
+     * Record a move which has been played
+     * @param nanos the duration of the move
+     */
+    public void recordMove(long nanos) {
+        moveLatency.record(nanos);
+    }
+
+    /**
+     * Record a check of the game status
+     * @param nanos the duration of the check
+     */
+    public void recordStatusCheck(long nanos) {
+        statusLatency.record(nanos);
+    }
+
+    /**
+     * Record the start of a game
+     */
+    public void recordGameStarted() {
+        gamesStarted.increment();
+    }
+
+    /**
+     * Record the end of a game
+     * @param status the final status of the game
+     */
+    public void recordGameFinished(GameStatus status) {
+        gamesFinished[status.ordinal()].increment();
+    }
+
+    /**
+     * Record an engine search
+     * @param result the result of the search
+     * @param nanos the duration of the search
+     * @param hits the number of transposition table probes of the search which found the position
+     * @param misses the number of transposition table probes of the search which did not find the position
+     */
+    public void recordSearch(SearchResult result, long nanos, long hits, long misses) {
+        searchLatency.record(nanos);
+        nodes.add(result.getNodes());
+        depths.add(result.getDepth());
+        tableHits.add(hits);
+        tableMisses.add(misses);
+    }
+
+    /**
+     * Get the histogram of the durations of the moves played
+     * @return histogram in nanoseconds
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Get the histogram of the durations of the game status checks
+     * @return histogram in nanoseconds
+     */
+    public LatencyHistogram getStatusLatency() {
+        return statusLatency;
+    }
+
+    /**
+     * Get the histogram of the durations of the engine searches
+     * @return histogram in nanoseconds
+     */
+    public LatencyHistogram getSearchLatency() {
+        return searchLatency;
+    }
+
+    /**
+     * Get the number of moves played
+     * @return number of moves
+     */
+    public long getMoves() {
+        return moveLatency.getCount();
+    }
+
+    /**
+     * Get the number of games which have started
+     * @return number of games
+     */
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    /**
+     * Get the number of games which have finished with a status
+     * @param status the final status of the games
+     * @return number of games
+     */
+    public long getGamesFinished(GameStatus status) {
+        return gamesFinished[status.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of engine searches
+     * @return number of searches
+     */
+    public long getSearches() {
+        return searchLatency.getCount();
+    }
+
+    /**
+     * Get the number of positions visited by the engines
+     * @return number of positions
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Get the sum of the depths reached by the engine searches
+     * @return sum of the depths
+     */
+    public long getDepths() {
+        return depths.sum();
+    }
+
+    /**
+     * Get the number of transposition table probes of the engines which found the position
+     * @return number of hits
+     */
+    public long getTableHits() {
+        return tableHits.sum();
+    }
+
+    /**
+     * Get the number of transposition table probes of the engines which did not find the position
+     * @return number of misses
+     */
+    public long getTableMisses() {
+        return tableMisses.sum();
+    }
+
+    /**
+     * Get the time the metrics were created
+     * @return time in System.nanoTime() units
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Take a snapshot of the metrics, with the rates since a previous snapshot
+     * @param previous the previous snapshot of these metrics, or null for the rates since they were created
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot(MetricsSnapshot previous) {
+        return new MetricsSnapshot(this, previous);
+    }
+}
@@ -0,0 +1,196 @@
+package org.game.connect4.metrics;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * JmxMetricsSink keeps the last published snapshot and exposes it as an MXBean of the platform MBean server,
+ * where JConsole, VisualVM or any JMX exporter can read it. Reading an attribute never touches the live metrics.
+ */
+public class JmxMetricsSink implements MetricsSink, MetricsMXBean, AutoCloseable {
+    /**
+     * Default object name of the MXBean
+     */
+    public static final String DEFAULT_NAME = "org.game.connect4:type=Metrics";
+
+    /**
+     * Object name of the MXBean
+     */
+    private final ObjectName name;
+    /**
+     * Last published snapshot
+     */
+    private volatile MetricsSnapshot snapshot;
+    /**
+     * Whether the MXBean is registered
+     */
+    private boolean registered;
+
+    /**
+     * Constructs a JmxMetricsSink with the default object name
+     */
+    public JmxMetricsSink() {
+        this(DEFAULT_NAME);
+    }
+
+    /**
+     * Constructs a JmxMetricsSink
+     * @param name object name of the MXBean
+     * @throws IllegalArgumentException if the name is not a valid object name
+     */
+    public JmxMetricsSink(String name) {
+        try {
+            this.name = new ObjectName(name);
+        }
+        catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid object name " + name + "!", e);
+        }
+        this.snapshot = new GameMetrics().snapshot(null);
+    }
+
+    /**
+     * Get the object name of the MXBean
+     * @return object name
+     */
+    public ObjectName getName() {
+        return name;
+    }
+
+    /**
+     * Register the MXBean with the platform MBean server
+     * @throws IllegalStateException if the registration fails, for instance because the name is taken
+     */
+    public synchronized void register() {
+        if (registered)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registered = true;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The metrics can not be registered as " + name + ".", e);
+        }
+    }
+
+    /**
+     * Unregister the MXBean from the platform MBean server
+     */
+    @Override
+    public synchronized void close() {
+        if (!registered)
+            return;
+        registered = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        }
+        catch (InstanceNotFoundException e) {
+            /* unregistered by someone else already */
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The metrics can not be unregistered from " + name + ".", e);
+        }
+    }
+
+    @Override
+    public void publish(MetricsSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get the last published snapshot
+     * @return the snapshot, empty until one has been published
+     */
+    public MetricsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public long getMoves() {
+        return snapshot.getMoves();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        return snapshot.getMovesPerSecond();
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return snapshot.getGamesStarted();
+    }
+
+    @Override
+    public long getPlayer1Wins() {
+        return snapshot.getPlayer1Wins();
+    }
+
+    @Override
+    public long getPlayer2Wins() {
+        return snapshot.getPlayer2Wins();
+    }
+
+    @Override
+    public long getTies() {
+        return snapshot.getTies();
+    }
+
+    @Override
+    public long getSearches() {
+        return snapshot.getSearches();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        return snapshot.getNodesPerSecond();
+    }
+
+    @Override
+    public double getAverageDepth() {
+        return snapshot.getAverageDepth();
+    }
+
+    @Override
+    public double getTableHitRate() {
+        return snapshot.getTableHitRate();
+    }
+
+    @Override
+    public long getMoveLatencyP50() {
+        return snapshot.getMoveLatencyP50();
+    }
+
+    @Override
+    public long getMoveLatencyP99() {
+        return snapshot.getMoveLatencyP99();
+    }
+
+    @Override
+    public long getMoveLatencyMax() {
+        return snapshot.getMoveLatencyMax();
+    }
+
+    @Override
+    public long getStatusLatencyP50() {
+        return snapshot.getStatusLatencyP50();
+    }
+
+    @Override
+    public long getStatusLatencyP99() {
+        return snapshot.getStatusLatencyP99();
+    }
+
+    @Override
+    public long getSearchLatencyP50() {
+        return snapshot.getSearchLatencyP50();
+    }
+
+    @Override
+    public long getSearchLatencyP99() {
+        return snapshot.getSearchLatencyP99();
+    }
+}
@@ -0,0 +1,140 @@
+package org.game.connect4.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram counts durations in nanoseconds into log-linear buckets, in the manner of an HDR histogram.
+ * Every power of two is split into {@link #SUB_BUCKETS} buckets, so a percentile is within about 3% of the
+ * recorded value from one nanosecond up to the largest long. Recording is a few bit operations and atomic
+ * increments on preallocated counters, it never allocates nor locks, and any number of threads can record at once.
+ */
+public final class LatencyHistogram {
+    /**
+     * Number of bits of a duration kept exactly, the leading one included
+     */
+    private static final int PRECISION_BITS = 6;
+    /**
+     * Number of buckets every power of two is split into
+     */
+    public static final int SUB_BUCKETS = 1 << (PRECISION_BITS - 1);
+    /**
+     * Number of buckets, enough for every positive long
+     */
+    private static final int BUCKETS = (Long.SIZE - PRECISION_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    /**
+     * Number of durations in every bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Number of recorded durations
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * Sum of the recorded durations
+     */
+    private final LongAdder total = new LongAdder();
+    /**
+     * Longest recorded duration
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration
+     * @param nanos the duration in nanoseconds, negative durations count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get())
+            max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the number of recorded durations
+     * @return number of durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the sum of the recorded durations
+     * @return the sum in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Get the longest recorded duration
+     * @return the duration in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the mean of the recorded durations
+     * @return the mean in nanoseconds, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Get a percentile of the recorded durations, which is the highest value of the bucket holding it.
+     * Durations recorded while the percentile is computed may or may not be taken into account.
+     * @param percentile the percentile between 0 and 100
+     * @return the duration in nanoseconds, 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile should be between 0 and 100.");
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            n += counts.get(i);
+        if (n == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestValue(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the bucket of a duration. Durations below 2 * {@link #SUB_BUCKETS} have a bucket each, larger ones
+     * share a bucket with the durations having the same leading {@link #PRECISION_BITS} bits.
+     * @param value the duration, not negative
+     * @return the index of the bucket
+     */
+    static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = Long.SIZE - PRECISION_BITS - Long.numberOfLeadingZeros(value);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Get the highest duration counted into a bucket
+     * @param bucket the index of the bucket
+     * @return the duration in nanoseconds
+     */
+    static long highestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
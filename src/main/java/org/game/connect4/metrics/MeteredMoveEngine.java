@@ -0,0 +1,71 @@
+package org.game.connect4.metrics;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.engine.MoveEngine;
+import org.game.connect4.engine.SearchResult;
+import org.game.connect4.engine.TranspositionTable;
+
+/**
+ * MeteredMoveEngine records the duration, visited positions and depth of every search of another engine
+ * into a {@link GameMetrics}, along with the hits and misses of its transposition table during the search.
+ * When the table is shared by engines searching at the same time, the hits and misses of the others
+ * are counted as well, so the hit rate is only approximate.
+ */
+public class MeteredMoveEngine implements MoveEngine {
+    /**
+     * Engine whose searches are recorded
+     */
+    private final MoveEngine engine;
+    /**
+     * Metrics receiving the searches
+     */
+    private final GameMetrics metrics;
+    /**
+     * Transposition table of the engine, or null
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Constructs a MeteredMoveEngine for an engine without transposition table
+     * @param engine engine whose searches are recorded
+     * @param metrics metrics receiving the searches
+     */
+    public MeteredMoveEngine(MoveEngine engine, GameMetrics metrics) {
+        this(engine, metrics, null);
+    }
+
+    /**
+     * Constructs a MeteredMoveEngine
+     * @param engine engine whose searches are recorded
+     * @param metrics metrics receiving the searches
+     * @param table transposition table of the engine, or null
+     */
+    public MeteredMoveEngine(MoveEngine engine, GameMetrics metrics, TranspositionTable table) {
+        this.engine = engine;
+        this.metrics = metrics;
+        this.table = table;
+    }
+
+    /**
+     * Get the engine whose searches are recorded
+     * @return the engine
+     */
+    public MoveEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public SearchResult search(ConnectFourGame game) {
+        long hits = table == null ? 0 : table.getHits();
+        long misses = table == null ? 0 : table.getMisses();
+        long start = System.nanoTime();
+        SearchResult result = engine.search(game);
+        long nanos = System.nanoTime() - start;
+        if (table != null) {
+            hits = table.getHits() - hits;
+            misses = table.getMisses() - misses;
+        }
+        metrics.recordSearch(result, nanos, Math.max(hits, 0), Math.max(misses, 0));
+        return result;
+    }
+}
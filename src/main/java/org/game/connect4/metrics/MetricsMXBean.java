@@ -0,0 +1,109 @@
+package org.game.connect4.metrics;
+
+/**
+ * MetricsMXBean is the JMX view of the last {@link MetricsSnapshot} published to a {@link JmxMetricsSink}.
+ * Latencies are in nanoseconds and rates cover the interval between the last two snapshots.
+ */
+public interface MetricsMXBean {
+    /**
+     * Get the number of moves played
+     * @return number of moves
+     */
+    long getMoves();
+
+    /**
+     * Get the moves played per second
+     * @return moves per second
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Get the number of games which have started
+     * @return number of games
+     */
+    long getGamesStarted();
+
+    /**
+     * Get the number of games won by the first player
+     * @return number of games
+     */
+    long getPlayer1Wins();
+
+    /**
+     * Get the number of games won by the second player
+     * @return number of games
+     */
+    long getPlayer2Wins();
+
+    /**
+     * Get the number of tied games
+     * @return number of games
+     */
+    long getTies();
+
+    /**
+     * Get the number of engine searches
+     * @return number of searches
+     */
+    long getSearches();
+
+    /**
+     * Get the positions visited per second of search
+     * @return positions per second
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Get the mean depth of the searches
+     * @return mean depth
+     */
+    double getAverageDepth();
+
+    /**
+     * Get the share of the transposition table probes which found the position
+     * @return hit rate between 0 and 1
+     */
+    double getTableHitRate();
+
+    /**
+     * Get the median duration of a move
+     * @return duration in nanoseconds
+     */
+    long getMoveLatencyP50();
+
+    /**
+     * Get the 99th percentile of the duration of a move
+     * @return duration in nanoseconds
+     */
+    long getMoveLatencyP99();
+
+    /**
+     * Get the longest duration of a move
+     * @return duration in nanoseconds
+     */
+    long getMoveLatencyMax();
+
+    /**
+     * Get the median duration of a game status check
+     * @return duration in nanoseconds
+     */
+    long getStatusLatencyP50();
+
+    /**
+     * Get the 99th percentile of the duration of a game status check
+     * @return duration in nanoseconds
+     */
+    long getStatusLatencyP99();
+
+    /**
+     * Get the median duration of an engine search
+     * @return duration in nanoseconds
+     */
+    long getSearchLatencyP50();
+
+    /**
+     * Get the 99th percentile of the duration of an engine search
+     * @return duration in nanoseconds
+     */
+    long getSearchLatencyP99();
+}
@@ -0,0 +1,76 @@
+package org.game.connect4.metrics;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsReporter takes snapshots of a {@link GameMetrics} and publishes them to its sinks,
+ * periodically from a background thread and whenever {@link #report()} is called.
+ * The rates of a snapshot cover the interval since the previous one. {@link #close()} stops the background thread.
+ */
+public class MetricsReporter implements AutoCloseable {
+    /**
+     * Metrics to report
+     */
+    private final GameMetrics metrics;
+    /**
+     * Sinks receiving the snapshots
+     */
+    private final List<MetricsSink> sinks;
+    /**
+     * Thread reporting periodically, or null
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Last published snapshot, or null
+     */
+    private MetricsSnapshot last;
+
+    /**
+     * Constructs a MetricsReporter
+     * @param metrics metrics to report
+     * @param periodMillis time between two reports, or 0 to only report when {@link #report()} is called
+     * @param sinks sinks receiving the snapshots
+     * @throws IllegalArgumentException if the period is negative
+     */
+    public MetricsReporter(GameMetrics metrics, long periodMillis, MetricsSink... sinks) {
+        if (periodMillis < 0)
+            throw new IllegalArgumentException("Reporting period should be >= 0.");
+        this.metrics = metrics;
+        this.sinks = List.of(sinks);
+        if (periodMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "connect4-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Take a snapshot of the metrics and publish it to every sink
+     * @return the published snapshot
+     */
+    public synchronized MetricsSnapshot report() {
+        MetricsSnapshot snapshot = metrics.snapshot(last);
+        last = snapshot;
+        for (MetricsSink sink : sinks)
+            sink.publish(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Stop reporting in the background. The sinks are not closed.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+    }
+}
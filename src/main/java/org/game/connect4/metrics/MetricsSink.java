@@ -0,0 +1,14 @@
+package org.game.connect4.metrics;
+
+/**
+ * MetricsSink receives the snapshots taken by a {@link MetricsReporter}, to log them or export them to a
+ * monitoring system. {@link JmxMetricsSink} exposes them through JMX.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+    /**
+     * Publish a snapshot. It is called by the reporting thread and should not block for long.
+     * @param snapshot the snapshot of the metrics
+     */
+    void publish(MetricsSnapshot snapshot);
+}
@@ -0,0 +1,338 @@
+package org.game.connect4.metrics;
+
+import org.game.connect4.util.GameStatus;
+
+/**
+ * MetricsSnapshot holds the values of a {@link GameMetrics} at one point in time.
+ * Counters and latency percentiles cover everything recorded since the metrics were created,
+ * while the rates cover the interval since the previous snapshot.
+ */
+public final class MetricsSnapshot {
+    /**
+     * Time of the snapshot, in System.nanoTime() units
+     */
+    private final long timeNanos;
+    /**
+     * Length of the interval covered by the rates
+     */
+    private final long intervalNanos;
+    /**
+     * Number of moves played
+     */
+    private final long moves;
+    /**
+     * Moves played per second during the interval
+     */
+    private final double movesPerSecond;
+    /**
+     * Number of games which have started
+     */
+    private final long gamesStarted;
+    /**
+     * Number of games won by the first player
+     */
+    private final long player1Wins;
+    /**
+     * Number of games won by the second player
+     */
+    private final long player2Wins;
+    /**
+     * Number of tied games
+     */
+    private final long ties;
+    /**
+     * Number of engine searches
+     */
+    private final long searches;
+    /**
+     * Number of positions visited by the engines
+     */
+    private final long nodes;
+    /**
+     * Sum of the depths reached by the engine searches
+     */
+    private final long depths;
+    /**
+     * Time spent searching by the engines
+     */
+    private final long searchNanos;
+    /**
+     * Number of transposition table probes which found the position
+     */
+    private final long tableHits;
+    /**
+     * Number of transposition table probes which did not find the position
+     */
+    private final long tableMisses;
+    /**
+     * Positions visited per second of search during the interval
+     */
+    private final double nodesPerSecond;
+    /**
+     * Mean depth of the searches of the interval
+     */
+    private final double averageDepth;
+    /**
+     * Share of the transposition table probes of the interval which found the position
+     */
+    private final double tableHitRate;
+    /**
+     * Median duration of a move
+     */
+    private final long moveLatencyP50;
+    /**
+     * 99th percentile of the duration of a move
+     */
+    private final long moveLatencyP99;
+    /**
+     * Longest duration of a move
+     */
+    private final long moveLatencyMax;
+    /**
+     * Median duration of a game status check
+     */
+    private final long statusLatencyP50;
+    /**
+     * 99th percentile of the duration of a game status check
+     */
+    private final long statusLatencyP99;
+    /**
+     * Median duration of an engine search
+     */
+    private final long searchLatencyP50;
+    /**
+     * 99th percentile of the duration of an engine search
+     */
+    private final long searchLatencyP99;
+    /**
+     * Longest duration of an engine search
+     */
+    private final long searchLatencyMax;
+
+    /**
+     * Constructs a snapshot of the current values of metrics
+     * @param metrics the metrics
+     * @param previous the previous snapshot of the metrics, or null
+     */
+    MetricsSnapshot(GameMetrics metrics, MetricsSnapshot previous) {
+        this.timeNanos = System.nanoTime();
+        this.moves = metrics.getMoves();
+        this.gamesStarted = metrics.getGamesStarted();
+        this.player1Wins = metrics.getGamesFinished(GameStatus.PLAYER_1_WINS);
+        this.player2Wins = metrics.getGamesFinished(GameStatus.PLAYER_2_WINS);
+        this.ties = metrics.getGamesFinished(GameStatus.TIE);
+        this.searches = metrics.getSearches();
+        this.nodes = metrics.getNodes();
+        this.depths = metrics.getDepths();
+        this.searchNanos = metrics.getSearchLatency().getTotal();
+        this.tableHits = metrics.getTableHits();
+        this.tableMisses = metrics.getTableMisses();
+        this.moveLatencyP50 = metrics.getMoveLatency().getPercentile(50);
+        this.moveLatencyP99 = metrics.getMoveLatency().getPercentile(99);
+        this.moveLatencyMax = metrics.getMoveLatency().getMax();
+        this.statusLatencyP50 = metrics.getStatusLatency().getPercentile(50);
+        this.statusLatencyP99 = metrics.getStatusLatency().getPercentile(99);
+        this.searchLatencyP50 = metrics.getSearchLatency().getPercentile(50);
+        this.searchLatencyP99 = metrics.getSearchLatency().getPercentile(99);
+        this.searchLatencyMax = metrics.getSearchLatency().getMax();
+
+        this.intervalNanos = timeNanos - (previous == null ? metrics.getCreatedNanos() : previous.timeNanos);
+        long newMoves = moves - (previous == null ? 0 : previous.moves);
+        long newSearches = searches - (previous == null ? 0 : previous.searches);
+        long newNodes = nodes - (previous == null ? 0 : previous.nodes);
+        long newDepths = depths - (previous == null ? 0 : previous.depths);
+        long newSearchNanos = searchNanos - (previous == null ? 0 : previous.searchNanos);
+        long newHits = tableHits - (previous == null ? 0 : previous.tableHits);
+        long newProbes = newHits + tableMisses - (previous == null ? 0 : previous.tableMisses);
+        this.movesPerSecond = intervalNanos <= 0 ? 0.0 : newMoves * 1e9 / intervalNanos;
+        this.nodesPerSecond = newSearchNanos <= 0 ? 0.0 : newNodes * 1e9 / newSearchNanos;
+        this.averageDepth = newSearches == 0 ? 0.0 : (double) newDepths / newSearches;
+        this.tableHitRate = newProbes == 0 ? 0.0 : (double) newHits / newProbes;
+    }
+
+    /**
+     * Get the time of the snapshot
+     * @return time in System.nanoTime() units
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Get the length of the interval covered by the rates
+     * @return length in nanoseconds
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Get the number of moves played
+     * @return number of moves
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Get the moves played per second during the interval
+     * @return moves per second
+     */
+    public double getMovesPerSecond() {
+        return movesPerSecond;
+    }
+
+    /**
+     * Get the number of games which have started
+     * @return number of games
+     */
+    public long getGamesStarted() {
+        return gamesStarted;
+    }
+
+    /**
+     * Get the number of games won by the first player
+     * @return number of games
+     */
+    public long getPlayer1Wins() {
+        return player1Wins;
+    }
+
+    /**
+     * Get the number of games won by the second player
+     * @return number of games
+     */
+    public long getPlayer2Wins() {
+        return player2Wins;
+    }
+
+    /**
+     * Get the number of tied games
+     * @return number of games
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Get the number of finished games
+     * @return number of games
+     */
+    public long getGamesFinished() {
+        return player1Wins + player2Wins + ties;
+    }
+
+    /**
+     * Get the number of engine searches
+     * @return number of searches
+     */
+    public long getSearches() {
+        return searches;
+    }
+
+    /**
+     * Get the number of positions visited by the engines
+     * @return number of positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the positions visited per second of search during the interval
+     * @return positions per second
+     */
+    public double getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    /**
+     * Get the mean depth of the searches of the interval
+     * @return mean depth
+     */
+    public double getAverageDepth() {
+        return averageDepth;
+    }
+
+    /**
+     * Get the share of the transposition table probes of the interval which found the position
+     * @return hit rate between 0 and 1
+     */
+    public double getTableHitRate() {
+        return tableHitRate;
+    }
+
+    /**
+     * Get the median duration of a move
+     * @return duration in nanoseconds
+     */
+    public long getMoveLatencyP50() {
+        return moveLatencyP50;
+    }
+
+    /**
+     * Get the 99th percentile of the duration of a move
+     * @return duration in nanoseconds
+     */
+    public long getMoveLatencyP99() {
+        return moveLatencyP99;
+    }
+
+    /**
+     * Get the longest duration of a move
+     * @return duration in nanoseconds
+     */
+    public long getMoveLatencyMax() {
+        return moveLatencyMax;
+    }
+
+    /**
+     * Get the median duration of a game status check
+     * @return duration in nanoseconds
+     */
+    public long getStatusLatencyP50() {
+        return statusLatencyP50;
+    }
+
+    /**
+     * Get the 99th percentile of the duration of a game status check
+     * @return duration in nanoseconds
+     */
+    public long getStatusLatencyP99() {
+        return statusLatencyP99;
+    }
+
+    /**
+     * Get the median duration of an engine search
+     * @return duration in nanoseconds
+     */
+    public long getSearchLatencyP50() {
+        return searchLatencyP50;
+    }
+
+    /**
+     * Get the 99th percentile of the duration of an engine search
+     * @return duration in nanoseconds
+     */
+    public long getSearchLatencyP99() {
+        return searchLatencyP99;
+    }
+
+    /**
+     * Get the longest duration of an engine search
+     * @return duration in nanoseconds
+     */
+    public long getSearchLatencyMax() {
+        return searchLatencyMax;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("moves=%d (%.0f/s) move p50=%dns p99=%dns max=%dns status p50=%dns p99=%dns | "
+                        + "games started=%d p1=%d p2=%d ties=%d | searches=%d p50=%dns p99=%dns nodes/s=%.0f "
+                        + "depth=%.1f tt hit=%.1f%%",
+                moves, movesPerSecond, moveLatencyP50, moveLatencyP99, moveLatencyMax, statusLatencyP50,
+                statusLatencyP99, gamesStarted, player1Wins, player2Wins, ties, searches, searchLatencyP50,
+                searchLatencyP99, nodesPerSecond, averageDepth, 100 * tableHitRate);
+    }
+}
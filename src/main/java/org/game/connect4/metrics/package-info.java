@@ -0,0 +1,4 @@
+/**
+ * The package includes the optional metrics of games and engines, their histograms and their sinks, including JMX.
+ */
+package org.game.connect4.metrics;
@@ -0,0 +1,209 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.GameConstants;
+
+/**
+ * Bitboard is the packed storage behind a {@link GameGrid}.
+ * Every token color owns one bitmask in which column c and row r map to the bit index c * (height + 1) + r.
+ * The extra bit on top of every column is never set, so runs of tokens can not wrap from one column into the next.
+ * Colors are identified by the ordinal of {@link org.game.connect4.util.TokenColor}, rows and columns start from 0.
+ */
+public interface Bitboard {
+    /**
+     * Value returned by {@link #getCell(int, int)} for an empty slot
+     */
+    int EMPTY = -1;
+    /**
+     * Weight of an immediately winning column in {@link #evaluate(int)}
+     */
+    int IMMEDIATE_WIN_WEIGHT = 16;
+    /**
+     * Weight of a threat in {@link #evaluate(int)}
+     */
+    int THREAT_WEIGHT = 4;
+
+    /**
+     * Creates the most compact bitboard for the given dimensions, where four consecutive tokens win.
+     * A single long per color is used when the grid fits into 64 bits, otherwise an array of longs is used.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return an empty bitboard with the given dimensions
+     */
+    static Bitboard create(int height, int width) {
+        return create(height, width, GameConstants.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Creates the most compact bitboard for the given dimensions and win length
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param winLength the number of consecutive tokens needed to win
+     * @return an empty bitboard with the given dimensions
+     */
+    static Bitboard create(int height, int width, int winLength) {
+        if (LongBitboard.fits(height, width))
+            return new LongBitboard(height, width, winLength);
+        return new MultiLongBitboard(height, width, winLength);
+    }
+
+    /**
+     * Get the height of the board
+     * @return height of the board
+     */
+    int getHeight();
+
+    /**
+     * Get the width of the board
+     * @return width of the board
+     */
+    int getWidth();
+
+    /**
+     * Get the number of consecutive tokens of a color needed to win
+     * @return the win length of the board
+     */
+    int getWinLength();
+
+    /**
+     * Get the number of tokens in a column
+     * @param column the index of the column (starting from 0...)
+     * @return number of tokens in the column
+     */
+    int getColumnHeight(int column);
+
+    /**
+     * Get the number of tokens on the board, which is also the number of moves played so far
+     * @return number of tokens on the board
+     */
+    int getMoveCount();
+
+    /**
+     * Get the Zobrist key of the tokens on the board. The key is updated incrementally by every move and undo,
+     * so equal boards reached through different move orders share the same key.
+     * @return the 64 bit key of the board
+     */
+    long getKey();
+
+    /**
+     * Get the Zobrist key of the mirror image of the board, with the columns in reverse order.
+     * It is updated incrementally along with {@link #getKey()}, and equals the key of the mirrored board.
+     * @return the 64 bit key of the mirrored board
+     */
+    long getMirrorKey();
+
+    /**
+     * Get the key shared by the board and its mirror image, which is the lesser of their keys.
+     * Tables keyed by it keep a position and its mirror image in one entry. A column stored for the canonical
+     * position has to be mirrored, to width - 1 - column, when {@link #isMirrored()} holds.
+     * @return the 64 bit canonical key of the board
+     */
+    default long getCanonicalKey() {
+        return Math.min(getKey(), getMirrorKey());
+    }
+
+    /**
+     * Check whether the canonical key of the board is the key of its mirror image
+     * @return true if the mirror key is less than the key
+     */
+    default boolean isMirrored() {
+        return getMirrorKey() < getKey();
+    }
+
+    /**
+     * Check whether a token can be dropped into a column
+     * @param column the index of the column (starting from 0...)
+     * @return true if the column exists and is not full
+     */
+    boolean canPlay(int column);
+
+    /**
+     * Drop a token of the given color into a column. The caller must make sure that the column is playable.
+     * @param column the index of the column (starting from 0...)
+     * @param color the ordinal of the token color
+     * @return the index of the row (starting from 0...) where the token has landed
+     */
+    int play(int column, int color);
+
+    /**
+     * Remove the top token of a column, taking back the last move played into it.
+     * The caller must make sure that the column is not empty.
+     * @param column the index of the column (starting from 0...)
+     */
+    void undo(int column);
+
+    /**
+     * Get the color of the token in a slot
+     * @param row the index of the row (starting from 0...)
+     * @param column the index of the column (starting from 0...)
+     * @return the ordinal of the token color or {@link #EMPTY} if the slot is empty
+     */
+    int getCell(int row, int column);
+
+    /**
+     * Check whether the top token of a column is part of a line of at least the win length of its color,
+     * either vertically, horizontally or diagonally. This is the check to run right after a move has been played.
+     * @param column the index of the column (starting from 0...)
+     * @return true if the top token of the column completes a line, false otherwise or if the column is empty
+     */
+    boolean isWinAt(int column);
+
+    /**
+     * Get the number of long words of the bitmask of a color, and of the buffers of {@link #getWinningCells}
+     * @return number of words, 1 for a {@link LongBitboard}
+     */
+    int getWordCount();
+
+    /**
+     * Write the bitmask words of the tokens of a color into a buffer
+     * @param color the ordinal of the token color
+     * @param words the buffer receiving the words, holding at least {@link #getWordCount()} words
+     */
+    void getTokens(int color, long[] words);
+
+    /**
+     * Write the empty slots that would complete a line of the win length for a color, whether they can be played now or later.
+     * The mask uses the bit layout of the board and is computed a whole word at a time.
+     * @param color the ordinal of the token color
+     * @param cells the buffer receiving the mask, holding at least {@link #getWordCount()} words
+     */
+    void getWinningCells(int color, long[] cells);
+
+    /**
+     * Count the empty slots that would complete a line of the win length for a color, which are its threats
+     * @param color the ordinal of the token color
+     * @return number of winning slots
+     */
+    int countThreats(int color);
+
+    /**
+     * Count the columns where a color wins by dropping a token now.
+     * The opponent of the color has to block each of them, two or more can not all be blocked.
+     * @param color the ordinal of the token color
+     * @return number of immediately winning columns
+     */
+    int countImmediateWins(int color);
+
+    /**
+     * Check whether dropping a token of a color into a playable column wins the game
+     * @param column the index of the column (starting from 0...)
+     * @param color the ordinal of the token color
+     * @return true if the move completes a line of the win length
+     */
+    boolean isWinningMove(int column, int color);
+
+    /**
+     * Get a static evaluation of the board for a color, from its immediate wins and threats against the opponent's
+     * @param color the ordinal of the token color
+     * @return positive if the board favours the color, negative if it favours the opponent
+     */
+    default int evaluate(int color) {
+        return IMMEDIATE_WIN_WEIGHT * (countImmediateWins(color) - countImmediateWins(1 - color))
+                + THREAT_WEIGHT * (countThreats(color) - countThreats(1 - color));
+    }
+
+    /**
+     * Create an independent copy of the board
+     * @return a new bitboard holding the same tokens
+     */
+    Bitboard copy();
+}
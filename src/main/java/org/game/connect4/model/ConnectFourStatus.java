@@ -56,13 +56,9 @@ public class ConnectFourStatus {
     }
 
     /**
-     * Display the winning sequence on the console
+     * Display the winning sequence on the console, built by a {@link GridRenderer} and written at once
      */
     public void displayWinningSequence(){
-        System.out.print("The winning sequences are:");
-        for (GridPosition p : getWinningSequence()){
-            System.out.print(" (" + p.getRow() + "," + p.getColumn() + ")");
-        }
-        System.out.println();
+        System.out.print(new GridRenderer().renderWinningSequence(getWinningSequence()));
     }
 }
@@ -1,14 +1,19 @@
 package org.game.connect4.model;
 
 import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.TokenColor;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * GameGrid represents the main grid of the ConnectFour game with slots for a token.
+ * The tokens are stored in a {@link Bitboard}, which keeps one bitmask per token color.
  */
 public class GameGrid {
+    /**
+     * Token colors indexed by their ordinal
+     */
+    private static final TokenColor[] COLORS = TokenColor.values();
     /**
      * Height of the grid
      */
@@ -18,33 +23,64 @@ public class GameGrid {
      */
     private final int width;
     /**
-     * The grid is represented as a two-dimensional list of single byte characters indicating the color of a token
+     * The packed tokens of the grid
      */
-    private final List<List<Character>> grid = new ArrayList<>();
+    private final Bitboard bitboard;
+    /**
+     * Read-only list view of the grid, created on first access
+     */
+    private List<List<Character>> grid;
 
     /**
-     * Constructs a game grid with the specified height and width
+     * Constructs a game grid with the specified height and width, where four consecutive tokens win
      * @param height the height of the grid
      * @param width the width of the grid
      */
     public GameGrid(int height, int width) {
+        this(height, width, GameConstants.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Constructs a game grid with the specified height, width and win length
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param winLength the number of consecutive tokens needed to win
+     */
+    public GameGrid(int height, int width, int winLength) {
         this.height = height;
         this.width = width;
-        /* creating a two dimensional list */
-        for (int i = 0; i < this.width; i++){
-            List<Character> tmp = new ArrayList<>();
-            grid.add(tmp);
-        }
+        this.bitboard = Bitboard.create(height, width, winLength);
     }
 
     /**
-     * Get the grid of the ConnectFour game
+     * Take an immutable snapshot of the grid, which other threads can read without locks
+     * while this grid goes on changing. It must be taken by the thread changing the grid.
+     * @return the snapshot of the current state of the grid
+     */
+    public GridSnapshot snapshot() {
+        return new GridSnapshot(bitboard);
+    }
+
+    /**
+     * Get the grid of the ConnectFour game.
+     * The returned list is a read-only view which always reflects the current state of the grid,
+     * so it must only be read by the thread changing the grid; other threads should read a {@link #snapshot()}.
      * @return a two-dimensional list representing the grid
      */
     public List<List<Character>> getGrid() {
+        if (grid == null)
+            grid = new GridListView(bitboard);
         return grid;
     }
 
+    /**
+     * Get the bitboard storing the tokens of the grid
+     * @return the bitboard of the grid
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
     /**
      * Get the height of the ConnectFour grid
      * @return height of the grid
@@ -61,21 +97,143 @@ public class GameGrid {
         return width;
     }
 
+    /**
+     * Get the number of consecutive tokens of a color needed to win
+     * @return win length of the grid
+     */
+    public int getWinLength() {
+        return bitboard.getWinLength();
+    }
+
+    /**
+     * Get the number of tokens in a column
+     * @param column the index of the column (starting from 0...)
+     * @return number of tokens in the column
+     */
+    public int getColumnHeight(int column) {
+        return bitboard.getColumnHeight(column);
+    }
+
+    /**
+     * Get the number of tokens in the grid, which is also the number of moves played so far
+     * @return number of tokens in the grid
+     */
+    public int getMoveCount() {
+        return bitboard.getMoveCount();
+    }
+
+    /**
+     * Check whether every slot of the grid is occupied
+     * @return true if the grid is full
+     */
+    public boolean isFull() {
+        return bitboard.getMoveCount() == height * width;
+    }
+
+    /**
+     * Get the Zobrist key of the tokens in the grid, which is updated incrementally with every move
+     * @return the 64 bit key of the grid
+     */
+    public long getKey() {
+        return bitboard.getKey();
+    }
+
+    /**
+     * Get the key shared by the grid and its mirror image, with the columns in reverse order.
+     * It is the lesser of the Zobrist keys of the grid and of its mirror image, both updated incrementally with every move.
+     * @return the 64 bit canonical key of the grid
+     */
+    public long getCanonicalKey() {
+        return bitboard.getCanonicalKey();
+    }
+
+    /**
+     * Get the color of the token in a slot
+     * @param row the index of the row (starting from 0...)
+     * @param column the index of the column (starting from 0...)
+     * @return the color of the token or null if the slot is empty
+     */
+    public TokenColor getToken(int row, int column) {
+        int color = bitboard.getCell(row, column);
+        return color == Bitboard.EMPTY ? null : COLORS[color];
+    }
+
+    /**
+     * Drop a token into a column. The caller must make sure that the column is not full.
+     * @param column the index of the column (starting from 0...)
+     * @param color the color of the token
+     * @return the index of the row (starting from 0...) where the token has landed
+     */
+    public int dropToken(int column, TokenColor color) {
+        return bitboard.play(column, color.ordinal());
+    }
+
+    /**
+     * Remove the top token of a column. The caller must make sure that the column is not empty.
+     * @param column the index of the column (starting from 0...)
+     * @return the color of the removed token
+     */
+    public TokenColor removeToken(int column) {
+        TokenColor color = getToken(bitboard.getColumnHeight(column) - 1, column);
+        bitboard.undo(column);
+        return color;
+    }
+
+    /**
+     * Write the empty slots that would complete a line of the win length for a color, whether they can be played now or later.
+     * Slot (row, column) is bit column * (height + 1) + row of the mask. Nothing is allocated, so a client
+     * can highlight the threats on every frame.
+     * @param color the color of the tokens
+     * @param cells the buffer receiving the mask, holding at least getBitboard().getWordCount() words
+     */
+    public void getWinningCells(TokenColor color, long[] cells) {
+        bitboard.getWinningCells(color.ordinal(), cells);
+    }
+
+    /**
+     * Count the empty slots that would complete a line of the win length for a color
+     * @param color the color of the tokens
+     * @return number of threats of the color
+     */
+    public int countThreats(TokenColor color) {
+        return bitboard.countThreats(color.ordinal());
+    }
+
+    /**
+     * Count the columns where a color wins by dropping a token now, which the other color is forced to block
+     * @param color the color of the tokens
+     * @return number of immediately winning columns
+     */
+    public int countImmediateWins(TokenColor color) {
+        return bitboard.countImmediateWins(color.ordinal());
+    }
+
+    /**
+     * Check whether dropping a token into a column wins the game. The caller must make sure that the column is not full.
+     * @param column the index of the column (starting from 0...)
+     * @param color the color of the token
+     * @return true if the move completes a line of the win length
+     */
+    public boolean isWinningMove(int column, TokenColor color) {
+        return bitboard.isWinningMove(column, color.ordinal());
+    }
+
+    /**
+     * Get a static evaluation of the grid, from the immediate wins and threats of both colors
+     * @param color the color the evaluation is made for
+     * @return positive if the grid favours the color, negative if it favours the other color
+     */
+    public int evaluate(TokenColor color) {
+        return bitboard.evaluate(color.ordinal());
+    }
+
     /**
      * Displays the current state of the ConnectFour grid. Empty slots are represented as '.' in the output.
      * This representation is helpful while creating text-based clients for the ConnectFour Game.
-     * Similar implementation can be used to display the grid in different ways.
+     * The grid is built by a {@link GridRenderer} and written to the console at once;
+     * the renderer can be used to write the grid anywhere else.
      */
     public void displayGrid() {
-        int i, j;
-        for (i = getHeight()-1; i >= 0; i--) {
-            for (j = 0; j < getWidth(); j++) {
-                if (i > getGrid().get(j).size()-1)
-                    System.out.print(GameConstants.EMPTY_SLOT + "\t");
-                else
-                    System.out.print(getGrid().get(j).get(i) + "\t");
-            }
-            System.out.println();
-        }
+        System.out.print(new GridRenderer(height, width).render(this));
     }
 }
@@ -0,0 +1,82 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.TokenColor;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * GridListView is a read-only two-dimensional list view of a {@link Bitboard}.
+ * The outer list holds the columns and every column lists the token symbols from the bottom row upwards.
+ * The view always reflects the current state of the board and does not copy any token.
+ */
+class GridListView extends AbstractList<List<Character>> {
+    /**
+     * Token colors indexed by their ordinal
+     */
+    private static final TokenColor[] COLORS = TokenColor.values();
+    /**
+     * The board backing this view
+     */
+    private final Bitboard bitboard;
+    /**
+     * Column views, created on first access
+     */
+    private final ColumnView[] columns;
+
+    /**
+     * Constructs a list view over the given board
+     * @param bitboard the board backing the view
+     */
+    GridListView(Bitboard bitboard) {
+        this.bitboard = bitboard;
+        this.columns = new ColumnView[bitboard.getWidth()];
+    }
+
+    @Override
+    public List<Character> get(int index) {
+        if (index < 0 || index >= columns.length)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + columns.length);
+        ColumnView column = columns[index];
+        if (column == null) {
+            column = new ColumnView(index);
+            columns[index] = column;
+        }
+        return column;
+    }
+
+    @Override
+    public int size() {
+        return columns.length;
+    }
+
+    /**
+     * ColumnView is a read-only list of the token symbols in a single column.
+     */
+    private class ColumnView extends AbstractList<Character> {
+        /**
+         * Index of the column (starting from 0...)
+         */
+        private final int column;
+
+        /**
+         * Constructs a view over a single column
+         * @param column index of the column (starting from 0...)
+         */
+        ColumnView(int column) {
+            this.column = column;
+        }
+
+        @Override
+        public Character get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            return COLORS[bitboard.getCell(index, column)].getSymbol();
+        }
+
+        @Override
+        public int size() {
+            return bitboard.getColumnHeight(column);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.TokenColor;
+
+import java.util.List;
+
+/**
+ * GridRenderer builds the text of a grid or of a winning sequence in one pass into a buffer that it reuses,
+ * so that the text can be written with a single call instead of one console write per slot.
+ * The grid is written from the top row down, every slot followed by a tab and every row by a line separator,
+ * with '.' for the empty slots. A renderer is not thread-safe; a spectator thread should render the
+ * {@link GridSnapshot} of a grid with its own renderer.
+ */
+public class GridRenderer {
+    /**
+     * Symbols of the token colors indexed by their ordinal
+     */
+    private static final char[] SYMBOLS = symbols();
+    /**
+     * Symbol of the empty slots
+     */
+    private static final char EMPTY = GameConstants.EMPTY_SLOT.charAt(0);
+
+    /**
+     * Buffer receiving the text, cleared by every rendering
+     */
+    private final StringBuilder buffer;
+
+    /**
+     * Constructs a GridRenderer with a buffer large enough for the default grid
+     */
+    public GridRenderer() {
+        this(GameConstants.DEFAULT_HEIGHT, GameConstants.DEFAULT_WIDTH);
+    }
+
+    /**
+     * Constructs a GridRenderer with a buffer large enough for a grid, so that rendering it never grows the buffer
+     * @param height the height of the grid
+     * @param width the width of the grid
+     */
+    public GridRenderer(int height, int width) {
+        this.buffer = new StringBuilder(height * (2 * width + System.lineSeparator().length()));
+    }
+
+    /**
+     * Render a grid
+     * @param grid the grid
+     * @return the buffer of the renderer holding the text of the grid, valid until the next rendering
+     */
+    public StringBuilder render(GameGrid grid) {
+        buffer.setLength(0);
+        appendGrid(grid, buffer);
+        return buffer;
+    }
+
+    /**
+     * Render a snapshot of a grid
+     * @param snapshot the snapshot
+     * @return the buffer of the renderer holding the text of the grid, valid until the next rendering
+     */
+    public StringBuilder render(GridSnapshot snapshot) {
+        buffer.setLength(0);
+        appendGrid(snapshot, buffer);
+        return buffer;
+    }
+
+    /**
+     * Render a winning sequence
+     * @param winningSequence the positions of the winning sequence
+     * @return the buffer of the renderer holding the text of the sequence, valid until the next rendering
+     */
+    public StringBuilder renderWinningSequence(List<GridPosition> winningSequence) {
+        buffer.setLength(0);
+        appendWinningSequence(winningSequence, buffer);
+        return buffer;
+    }
+
+    /**
+     * Append the text of a grid to a buffer
+     * @param grid the grid
+     * @param out the buffer receiving the text
+     */
+    public static void appendGrid(GameGrid grid, StringBuilder out) {
+        Bitboard bitboard = grid.getBitboard();
+        for (int row = bitboard.getHeight() - 1; row >= 0; row--) {
+            for (int column = 0; column < bitboard.getWidth(); column++) {
+                int color = bitboard.getCell(row, column);
+                out.append(color == Bitboard.EMPTY ? EMPTY : SYMBOLS[color]).append('\t');
+            }
+            out.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Append the text of a snapshot of a grid to a buffer
+     * @param snapshot the snapshot
+     * @param out the buffer receiving the text
+     */
+    public static void appendGrid(GridSnapshot snapshot, StringBuilder out) {
+        for (int row = snapshot.getHeight() - 1; row >= 0; row--) {
+            for (int column = 0; column < snapshot.getWidth(); column++) {
+                TokenColor color = snapshot.getToken(row, column);
+                out.append(color == null ? EMPTY : SYMBOLS[color.ordinal()]).append('\t');
+            }
+            out.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Append the text of a winning sequence to a buffer, followed by a line separator
+     * @param winningSequence the positions of the winning sequence
+     * @param out the buffer receiving the text
+     */
+    public static void appendWinningSequence(List<GridPosition> winningSequence, StringBuilder out) {
+        out.append("The winning sequences are:");
+        for (GridPosition p : winningSequence)
+            out.append(" (").append(p.getRow()).append(',').append(p.getColumn()).append(')');
+        out.append(System.lineSeparator());
+    }
+
+    /**
+     * Collect the symbols of the token colors
+     * @return the symbols indexed by the ordinal of the colors
+     */
+    private static char[] symbols() {
+        TokenColor[] colors = TokenColor.values();
+        char[] symbols = new char[colors.length];
+        for (TokenColor color : colors)
+            symbols[color.ordinal()] = color.getSymbol();
+        return symbols;
+    }
+}
@@ -0,0 +1,179 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.TokenColor;
+
+/**
+ * GridSnapshot is an immutable copy of the tokens of a {@link GameGrid} at one point of a game.
+ * Taking a snapshot only copies the bitmask words of both colors and the column heights, so the thread playing
+ * a game can take one after every move and publish it through a volatile field. Any number of threads can then
+ * read the published snapshot without locks, and never see a move half played.
+ */
+public final class GridSnapshot {
+    /**
+     * Token colors indexed by their ordinal
+     */
+    private static final TokenColor[] COLORS = TokenColor.values();
+    /**
+     * Height of the grid
+     */
+    private final int height;
+    /**
+     * Width of the grid
+     */
+    private final int width;
+    /**
+     * Number of consecutive tokens of a color needed to win
+     */
+    private final int winLength;
+    /**
+     * Number of tokens in the grid
+     */
+    private final int moveCount;
+    /**
+     * Zobrist key of the tokens in the grid
+     */
+    private final long key;
+    /**
+     * Zobrist key of the mirror image of the tokens in the grid
+     */
+    private final long mirrorKey;
+    /**
+     * One array of bitmask words per token color, in the layout of the {@link Bitboard}
+     */
+    private final long[][] tokens;
+    /**
+     * Number of tokens in every column
+     */
+    private final int[] heights;
+
+    /**
+     * Constructs a snapshot of the current state of a board
+     * @param board the board to copy
+     */
+    GridSnapshot(Bitboard board) {
+        this.height = board.getHeight();
+        this.width = board.getWidth();
+        this.winLength = board.getWinLength();
+        this.moveCount = board.getMoveCount();
+        this.key = board.getKey();
+        this.mirrorKey = board.getMirrorKey();
+        this.tokens = new long[2][board.getWordCount()];
+        board.getTokens(0, tokens[0]);
+        board.getTokens(1, tokens[1]);
+        this.heights = new int[width];
+        for (int column = 0; column < width; column++)
+            heights[column] = board.getColumnHeight(column);
+    }
+
+    /**
+     * Get the height of the grid
+     * @return height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of the grid
+     * @return width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of consecutive tokens of a color needed to win
+     * @return win length of the grid
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Get the number of tokens in the grid, which is also the number of moves played when the snapshot was taken
+     * @return number of tokens in the grid
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get the Zobrist key of the tokens in the grid
+     * @return the 64 bit key of the grid
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Get the key shared by the grid and its mirror image, with the columns in reverse order
+     * @return the 64 bit canonical key of the grid
+     */
+    public long getCanonicalKey() {
+        return Math.min(key, mirrorKey);
+    }
+
+    /**
+     * Get the number of tokens in a column
+     * @param column the index of the column (starting from 0...)
+     * @return number of tokens in the column
+     */
+    public int getColumnHeight(int column) {
+        return heights[column];
+    }
+
+    /**
+     * Check whether every slot of the grid is occupied
+     * @return true if the grid is full
+     */
+    public boolean isFull() {
+        return moveCount == height * width;
+    }
+
+    /**
+     * Get the color of the token in a slot
+     * @param row the index of the row (starting from 0...)
+     * @param column the index of the column (starting from 0...)
+     * @return the color of the token or null if the slot is empty
+     */
+    public TokenColor getToken(int row, int column) {
+        int index = column * (height + 1) + row;
+        long bit = 1L << index;
+        if ((tokens[0][index >>> 6] & bit) != 0)
+            return COLORS[0];
+        if ((tokens[1][index >>> 6] & bit) != 0)
+            return COLORS[1];
+        return null;
+    }
+
+    /**
+     * Write the bitmask words of the tokens of a color into a buffer
+     * @param color the color of the tokens
+     * @param words the buffer receiving the words, in the layout of the {@link Bitboard}
+     */
+    public void getTokens(TokenColor color, long[] words) {
+        long[] source = tokens[color.ordinal()];
+        System.arraycopy(source, 0, words, 0, source.length);
+    }
+
+    /**
+     * Get the number of long words of the bitmask of a color
+     * @return number of words
+     */
+    public int getWordCount() {
+        return tokens[0].length;
+    }
+
+    /**
+     * Create a bitboard holding the tokens of the snapshot, which a reader can analyse or search on its own thread
+     * @return a new bitboard with the same tokens and keys
+     */
+    public Bitboard toBitboard() {
+        Bitboard board = Bitboard.create(height, width, winLength);
+        for (int column = 0; column < width; column++) {
+            for (int row = 0; row < heights[column]; row++)
+                board.play(column, getToken(row, column).ordinal());
+        }
+        return board;
+    }
+}
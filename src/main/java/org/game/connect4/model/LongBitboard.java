@@ -0,0 +1,354 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.GameConstants;
+
+/**
+ * LongBitboard packs each color of a grid into a single long.
+ * It is used for every grid where (height + 1) * width is at most 64, which includes the default 6x7 grid.
+ */
+public final class LongBitboard implements Bitboard {
+    /**
+     * Height of the board
+     */
+    private final int height;
+    /**
+     * Width of the board
+     */
+    private final int width;
+    /**
+     * Number of consecutive tokens of a color needed to win
+     */
+    private final int winLength;
+    /**
+     * One bitmask per token color
+     */
+    private final long[] tokens = new long[2];
+    /**
+     * Number of tokens in every column
+     */
+    private final int[] heights;
+    /**
+     * Number of tokens on the board
+     */
+    private int moveCount;
+    /**
+     * Zobrist key of the tokens on the board
+     */
+    private long key;
+    /**
+     * Zobrist key of the mirror image of the tokens on the board, with the columns in reverse order
+     */
+    private long mirrorKey;
+    /**
+     * One bit at the bottom of every column
+     */
+    private final long bottomMask;
+    /**
+     * Every slot of the board, without the extra bit on top of every column
+     */
+    private final long boardMask;
+    /**
+     * Scratch runs of tokens reused by the threat analysis, one per run length below the win length
+     */
+    private final long[] runs;
+
+    /**
+     * Constructs an empty board with the given dimensions, where four consecutive tokens win
+     * @param height the height of the board
+     * @param width the width of the board
+     * @throws IllegalArgumentException if the board does not fit into a long
+     */
+    public LongBitboard(int height, int width) {
+        this(height, width, GameConstants.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Constructs an empty board with the given dimensions and win length
+     * @param height the height of the board
+     * @param width the width of the board
+     * @param winLength the number of consecutive tokens needed to win
+     * @throws IllegalArgumentException if the board does not fit into a long or the win length is too small
+     */
+    public LongBitboard(int height, int width, int winLength) {
+        if (!fits(height, width))
+            throw new IllegalArgumentException("A " + height + "x" + width + " grid does not fit into a long.");
+        if (winLength < GameConstants.MIN_WIN_LENGTH)
+            throw new IllegalArgumentException("Win length should be >= " + GameConstants.MIN_WIN_LENGTH + ".");
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
+        this.runs = new long[winLength];
+        this.heights = new int[width];
+        long bottom = 0L;
+        for (int column = 0; column < width; column++)
+            bottom |= 1L << (column * (height + 1));
+        this.bottomMask = bottom;
+        this.boardMask = bottom * ((1L << height) - 1);
+    }
+
+    /**
+     * Constructs a copy of another board
+     * @param other the board to copy
+     */
+    private LongBitboard(LongBitboard other) {
+        this.height = other.height;
+        this.width = other.width;
+        this.winLength = other.winLength;
+        this.runs = new long[winLength];
+        this.tokens[0] = other.tokens[0];
+        this.tokens[1] = other.tokens[1];
+        this.heights = other.heights.clone();
+        this.moveCount = other.moveCount;
+        this.key = other.key;
+        this.mirrorKey = other.mirrorKey;
+        this.bottomMask = other.bottomMask;
+        this.boardMask = other.boardMask;
+    }
+
+    /**
+     * Check whether a grid of the given dimensions can be packed into a single long per color
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return true if (height + 1) * width is at most 64
+     */
+    public static boolean fits(int height, int width) {
+        return height > 0 && width > 0 && (long) (height + 1) * width <= Long.SIZE;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getWinLength() {
+        return winLength;
+    }
+
+    @Override
+    public int getColumnHeight(int column) {
+        return heights[column];
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public long getMirrorKey() {
+        return mirrorKey;
+    }
+
+    @Override
+    public boolean canPlay(int column) {
+        return column >= 0 && column < width && heights[column] < height;
+    }
+
+    @Override
+    public int play(int column, int color) {
+        int row = heights[column]++;
+        moveCount++;
+        int index = column * (height + 1) + row;
+        tokens[color] |= 1L << index;
+        key ^= Zobrist.key(index, color);
+        mirrorKey ^= Zobrist.key((width - 1 - column) * (height + 1) + row, color);
+        return row;
+    }
+
+    @Override
+    public void undo(int column) {
+        int row = --heights[column];
+        moveCount--;
+        int index = column * (height + 1) + row;
+        long bit = 1L << index;
+        int color = (tokens[0] & bit) != 0 ? 0 : 1;
+        key ^= Zobrist.key(index, color);
+        mirrorKey ^= Zobrist.key((width - 1 - column) * (height + 1) + row, color);
+        tokens[0] &= ~bit;
+        tokens[1] &= ~bit;
+    }
+
+    @Override
+    public int getCell(int row, int column) {
+        long bit = 1L << (column * (height + 1) + row);
+        if ((tokens[0] & bit) != 0)
+            return 0;
+        if ((tokens[1] & bit) != 0)
+            return 1;
+        return EMPTY;
+    }
+
+    @Override
+    public boolean isWinAt(int column) {
+        int row = heights[column] - 1;
+        if (row < 0)
+            return false;
+        long bit = 1L << (column * (height + 1) + row);
+        long own = (tokens[0] & bit) != 0 ? tokens[0] : tokens[1];
+        return inRun(own, bit, 1, winLength) || inRun(own, bit, height + 1, winLength) ||
+                inRun(own, bit, height, winLength) || inRun(own, bit, height + 2, winLength);
+    }
+
+    @Override
+    public int getWordCount() {
+        return 1;
+    }
+
+    @Override
+    public void getTokens(int color, long[] words) {
+        words[0] = tokens[color];
+    }
+
+    @Override
+    public void getWinningCells(int color, long[] cells) {
+        cells[0] = getWinningCells(color);
+    }
+
+    /**
+     * Get the empty slots that would complete a line of the win length for a color
+     * @param color the ordinal of the token color
+     * @return bitmask of the winning slots
+     */
+    public long getWinningCells(int color) {
+        long own = tokens[color];
+        long cells = completions(own, 1) | completions(own, height + 1) |
+                completions(own, height) | completions(own, height + 2);
+        return cells & boardMask & ~(tokens[0] | tokens[1]);
+    }
+
+    /**
+     * Get the playable slots, one per column that is not full
+     * @return bitmask of the playable slots
+     */
+    public long getPlayableCells() {
+        return ((tokens[0] | tokens[1]) + bottomMask) & boardMask;
+    }
+
+    @Override
+    public int countThreats(int color) {
+        return Long.bitCount(getWinningCells(color));
+    }
+
+    @Override
+    public int countImmediateWins(int color) {
+        return Long.bitCount(getWinningCells(color) & getPlayableCells());
+    }
+
+    @Override
+    public boolean isWinningMove(int column, int color) {
+        return (getWinningCells(color) & 1L << (column * (height + 1) + heights[column])) != 0;
+    }
+
+    @Override
+    public LongBitboard copy() {
+        return new LongBitboard(this);
+    }
+
+    /**
+     * Check whether a bit is part of a run of consecutive bits along one direction of the board.
+     * The runs are built by doubling their length, so only O(log length) shifts are needed.
+     * @param bits the tokens of a color
+     * @param bit the single bit to look at
+     * @param shift the distance between two neighbouring slots in the direction:
+     *              1 for vertical, height + 1 for horizontal, height and height + 2 for the diagonals
+     * @param length the length of the run
+     * @return true if the bit is part of the given number of consecutive bits
+     */
+    private static boolean inRun(long bits, long bit, int shift, int length) {
+        /* starts holds every bit that is the lowest of run consecutive set bits */
+        long starts = bits;
+        /* window holds the bit together with the run - 1 slots below it in the direction */
+        long window = bit;
+        int run = 1;
+        while (2 * run <= length) {
+            starts &= shiftRight(starts, run * shift);
+            window |= shiftRight(window, run * shift);
+            run *= 2;
+        }
+        /* two overlapping runs cover the remaining length */
+        if (run < length) {
+            starts &= shiftRight(starts, (length - run) * shift);
+            window |= shiftRight(window, (length - run) * shift);
+        }
+        return (starts & window) != 0;
+    }
+
+    /**
+     * Get the slots that would complete a line of the win length along one direction,
+     * with k tokens below the slot and the remaining win length - 1 - k tokens above it
+     * @param bits the tokens of a color
+     * @param shift the distance between two neighbouring slots in the direction
+     * @return bitmask of the slots, including slots outside the board
+     */
+    private long completions(long bits, int shift) {
+        if (winLength == GameConstants.DEFAULT_WIN_LENGTH)
+            return completionsOfFour(bits, shift);
+        /* runs[m] holds the slots followed by m tokens above them in the direction */
+        runs[0] = -1L;
+        for (int m = 1; m < winLength; m++)
+            runs[m] = runs[m - 1] & shiftRight(bits, m * shift);
+        long below = -1L;
+        long cells = runs[winLength - 1];
+        for (int k = 1; k < winLength; k++) {
+            below &= shiftLeft(bits, k * shift);
+            cells |= below & runs[winLength - 1 - k];
+        }
+        return cells;
+    }
+
+    /**
+     * Get the slots that would complete a line of four along one direction,
+     * with three tokens on one side of the slot or split two and one around it.
+     * This is the unrolled form of {@link #completions} for the default win length, which the engines call the most.
+     * @param bits the tokens of a color
+     * @param shift the distance between two neighbouring slots in the direction
+     * @return bitmask of the slots, including slots outside the board
+     */
+    private static long completionsOfFour(long bits, int shift) {
+        long pair = shiftLeft(bits, shift) & shiftLeft(bits, 2 * shift);
+        long cells = pair & (shiftLeft(bits, 3 * shift) | shiftRight(bits, shift));
+        pair = shiftRight(bits, shift) & shiftRight(bits, 2 * shift);
+        cells |= pair & (shiftLeft(bits, shift) | shiftRight(bits, 3 * shift));
+        return cells;
+    }
+
+    /**
+     * Left shift which clears every bit once the distance reaches the size of a long
+     * @param bits the bits to shift
+     * @param distance the distance to shift by
+     * @return the shifted bits
+     */
+    private static long shiftLeft(long bits, int distance) {
+        return distance < Long.SIZE ? bits << distance : 0L;
+    }
+
+    /**
+     * Unsigned right shift which clears every bit once the distance reaches the size of a long
+     * @param bits the bits to shift
+     * @param distance the distance to shift by
+     * @return the shifted bits
+     */
+    private static long shiftRight(long bits, int distance) {
+        return distance < Long.SIZE ? bits >>> distance : 0L;
+    }
+
+    /**
+     * Get the bitmask of all the tokens of a color
+     * @param color the ordinal of the token color
+     * @return bitmask of the tokens of the color
+     */
+    public long getTokens(int color) {
+        return tokens[color];
+    }
+}
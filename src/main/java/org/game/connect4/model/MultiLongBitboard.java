@@ -0,0 +1,359 @@
+package org.game.connect4.model;
+
+import org.game.connect4.util.GameConstants;
+
+import java.util.Arrays;
+
+/**
+ * MultiLongBitboard packs each color of a grid into an array of longs.
+ * It is used for the large custom grids that do not fit into a {@link LongBitboard}.
+ */
+public final class MultiLongBitboard implements Bitboard {
+    /**
+     * Height of the board
+     */
+    private final int height;
+    /**
+     * Width of the board
+     */
+    private final int width;
+    /**
+     * Number of consecutive tokens of a color needed to win
+     */
+    private final int winLength;
+    /**
+     * One array of bitmask words per token color
+     */
+    private final long[][] tokens;
+    /**
+     * Number of tokens in every column
+     */
+    private final int[] heights;
+    /**
+     * Number of tokens on the board
+     */
+    private int moveCount;
+    /**
+     * Zobrist key of the tokens on the board
+     */
+    private long key;
+    /**
+     * Zobrist key of the mirror image of the tokens on the board, with the columns in reverse order
+     */
+    private long mirrorKey;
+    /**
+     * Every slot of the board, without the extra bit on top of every column
+     */
+    private final long[] boardMask;
+    /**
+     * Scratch words reused by the threat analysis: one run of tokens per run length below the win length,
+     * followed by the shifted tokens, the run below a slot and the winning slots
+     */
+    private final long[][] scratch;
+
+    /**
+     * Constructs an empty board with the given dimensions, where four consecutive tokens win
+     * @param height the height of the board
+     * @param width the width of the board
+     */
+    public MultiLongBitboard(int height, int width) {
+        this(height, width, GameConstants.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Constructs an empty board with the given dimensions and win length
+     * @param height the height of the board
+     * @param width the width of the board
+     * @param winLength the number of consecutive tokens needed to win
+     * @throws IllegalArgumentException if the win length is too small
+     */
+    public MultiLongBitboard(int height, int width, int winLength) {
+        if (winLength < GameConstants.MIN_WIN_LENGTH)
+            throw new IllegalArgumentException("Win length should be >= " + GameConstants.MIN_WIN_LENGTH + ".");
+        this.height = height;
+        this.width = width;
+        this.winLength = winLength;
+        int words = (int) (((long) (height + 1) * width + Long.SIZE - 1) / Long.SIZE);
+        this.tokens = new long[2][words];
+        this.heights = new int[width];
+        this.boardMask = new long[words];
+        for (int column = 0; column < width; column++) {
+            for (int row = 0; row < height; row++) {
+                int index = column * (height + 1) + row;
+                boardMask[index >>> 6] |= 1L << index;
+            }
+        }
+        this.scratch = new long[winLength + 3][words];
+    }
+
+    /**
+     * Constructs a copy of another board
+     * @param other the board to copy
+     */
+    private MultiLongBitboard(MultiLongBitboard other) {
+        this.height = other.height;
+        this.width = other.width;
+        this.winLength = other.winLength;
+        this.tokens = new long[][] {other.tokens[0].clone(), other.tokens[1].clone()};
+        this.heights = other.heights.clone();
+        this.moveCount = other.moveCount;
+        this.key = other.key;
+        this.mirrorKey = other.mirrorKey;
+        this.boardMask = other.boardMask;
+        this.scratch = new long[winLength + 3][boardMask.length];
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getWinLength() {
+        return winLength;
+    }
+
+    @Override
+    public int getColumnHeight(int column) {
+        return heights[column];
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public long getMirrorKey() {
+        return mirrorKey;
+    }
+
+    @Override
+    public boolean canPlay(int column) {
+        return column >= 0 && column < width && heights[column] < height;
+    }
+
+    @Override
+    public int play(int column, int color) {
+        int row = heights[column]++;
+        moveCount++;
+        int index = column * (height + 1) + row;
+        tokens[color][index >>> 6] |= 1L << index;
+        key ^= Zobrist.key(index, color);
+        mirrorKey ^= Zobrist.key((width - 1 - column) * (height + 1) + row, color);
+        return row;
+    }
+
+    @Override
+    public void undo(int column) {
+        int row = --heights[column];
+        moveCount--;
+        int index = column * (height + 1) + row;
+        int color = (tokens[0][index >>> 6] & (1L << index)) != 0 ? 0 : 1;
+        key ^= Zobrist.key(index, color);
+        mirrorKey ^= Zobrist.key((width - 1 - column) * (height + 1) + row, color);
+        tokens[0][index >>> 6] &= ~(1L << index);
+        tokens[1][index >>> 6] &= ~(1L << index);
+    }
+
+    @Override
+    public int getCell(int row, int column) {
+        int index = column * (height + 1) + row;
+        long bit = 1L << index;
+        if ((tokens[0][index >>> 6] & bit) != 0)
+            return 0;
+        if ((tokens[1][index >>> 6] & bit) != 0)
+            return 1;
+        return EMPTY;
+    }
+
+    @Override
+    public boolean isWinAt(int column) {
+        int row = heights[column] - 1;
+        if (row < 0)
+            return false;
+        int color = getCell(row, column);
+        return runLength(row, column, color, 1, 0) >= winLength || runLength(row, column, color, 0, 1) >= winLength ||
+                runLength(row, column, color, 1, 1) >= winLength || runLength(row, column, color, -1, 1) >= winLength;
+    }
+
+    @Override
+    public int getWordCount() {
+        return boardMask.length;
+    }
+
+    @Override
+    public void getTokens(int color, long[] words) {
+        System.arraycopy(tokens[color], 0, words, 0, tokens[color].length);
+    }
+
+    @Override
+    public void getWinningCells(int color, long[] cells) {
+        long[] own = tokens[color];
+        Arrays.fill(cells, 0, boardMask.length, 0L);
+        addCompletions(own, 1, cells);
+        addCompletions(own, height + 1, cells);
+        addCompletions(own, height, cells);
+        addCompletions(own, height + 2, cells);
+        for (int i = 0; i < boardMask.length; i++)
+            cells[i] &= boardMask[i] & ~(tokens[0][i] | tokens[1][i]);
+    }
+
+    @Override
+    public int countThreats(int color) {
+        long[] cells = scratch[winLength + 2];
+        getWinningCells(color, cells);
+        int count = 0;
+        for (long word : cells)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    @Override
+    public int countImmediateWins(int color) {
+        long[] cells = scratch[winLength + 2];
+        getWinningCells(color, cells);
+        int count = 0;
+        for (int column = 0; column < width; column++) {
+            if (heights[column] == height)
+                continue;
+            int index = column * (height + 1) + heights[column];
+            if ((cells[index >>> 6] & (1L << index)) != 0)
+                count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isWinningMove(int column, int color) {
+        int row = heights[column];
+        return runLength(row, column, color, 1, 0) >= winLength || runLength(row, column, color, 0, 1) >= winLength ||
+                runLength(row, column, color, 1, 1) >= winLength || runLength(row, column, color, -1, 1) >= winLength;
+    }
+
+    @Override
+    public MultiLongBitboard copy() {
+        return new MultiLongBitboard(this);
+    }
+
+    /**
+     * Count the consecutive tokens of a color through a slot along one direction, looking at most win length - 1 slots
+     * each way. The words of a large board can not be shifted as a whole in constant time, so the bits around a single
+     * slot are tested one by one, stopping at the first slot of another color.
+     * @param row the index of the row (starting from 0...)
+     * @param column the index of the column (starting from 0...)
+     * @param color the ordinal of the token color
+     * @param rowStep the row offset between two neighbouring slots in the direction
+     * @param columnStep the column offset between two neighbouring slots in the direction
+     * @return the length of the run, capped at 2 * win length - 1
+     */
+    private int runLength(int row, int column, int color, int rowStep, int columnStep) {
+        int length = 1;
+        for (int i = 1; i < winLength && isColor(row - i * rowStep, column - i * columnStep, color); i++)
+            length++;
+        for (int i = 1; i < winLength && isColor(row + i * rowStep, column + i * columnStep, color); i++)
+            length++;
+        return length;
+    }
+
+    /**
+     * Add the slots that would complete a line of the win length along one direction to a mask,
+     * with k tokens below the slot and the remaining win length - 1 - k tokens above it
+     * @param bits the words of the tokens of a color
+     * @param shift the distance between two neighbouring slots in the direction
+     * @param cells the mask receiving the slots, including slots outside the board
+     */
+    private void addCompletions(long[] bits, int shift, long[] cells) {
+        long[] shifted = scratch[winLength];
+        long[] below = scratch[winLength + 1];
+        /* scratch[m] holds the slots followed by m tokens above them in the direction */
+        Arrays.fill(scratch[0], -1L);
+        for (int m = 1; m < winLength; m++) {
+            shiftRight(bits, m * shift, shifted);
+            for (int i = 0; i < bits.length; i++)
+                scratch[m][i] = scratch[m - 1][i] & shifted[i];
+        }
+        long[] above = scratch[winLength - 1];
+        for (int i = 0; i < bits.length; i++) {
+            cells[i] |= above[i];
+            below[i] = -1L;
+        }
+        for (int k = 1; k < winLength; k++) {
+            shiftLeft(bits, k * shift, shifted);
+            above = scratch[winLength - 1 - k];
+            for (int i = 0; i < bits.length; i++) {
+                below[i] &= shifted[i];
+                cells[i] |= below[i] & above[i];
+            }
+        }
+    }
+
+    /**
+     * Shift the words of a bitmask towards the higher bit indexes
+     * @param source the words to shift
+     * @param distance the distance to shift by
+     * @param target the words receiving the shifted bits
+     */
+    private static void shiftLeft(long[] source, int distance, long[] target) {
+        int words = distance >>> 6;
+        int bits = distance & 63;
+        for (int i = source.length - 1; i >= 0; i--) {
+            int j = i - words;
+            long word = j >= 0 ? source[j] << bits : 0L;
+            if (bits != 0 && j > 0)
+                word |= source[j - 1] >>> (64 - bits);
+            target[i] = word;
+        }
+    }
+
+    /**
+     * Shift the words of a bitmask towards the lower bit indexes
+     * @param source the words to shift
+     * @param distance the distance to shift by
+     * @param target the words receiving the shifted bits
+     */
+    private static void shiftRight(long[] source, int distance, long[] target) {
+        int words = distance >>> 6;
+        int bits = distance & 63;
+        for (int i = 0; i < source.length; i++) {
+            int j = i + words;
+            long word = j < source.length ? source[j] >>> bits : 0L;
+            if (bits != 0 && j + 1 < source.length)
+                word |= source[j + 1] << (64 - bits);
+            target[i] = word;
+        }
+    }
+
+    /**
+     * Check whether a slot inside the board holds a token of a color
+     * @param row the index of the row, may be outside the board
+     * @param column the index of the column, may be outside the board
+     * @param color the ordinal of the token color
+     * @return true if the slot exists and holds a token of the color
+     */
+    private boolean isColor(int row, int column, int color) {
+        if (row < 0 || row >= height || column < 0 || column >= width)
+            return false;
+        int index = column * (height + 1) + row;
+        return (tokens[color][index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Get the bitmask words of all the tokens of a color. The returned array must not be modified.
+     * @param color the ordinal of the token color
+     * @return bitmask words of the tokens of the color
+     */
+    public long[] getTokens(int color) {
+        return tokens[color];
+    }
+}
@@ -0,0 +1,24 @@
+package org.game.connect4.model;
+
+/**
+ * Zobrist derives the random key of a token in a slot, which bitboards XOR into their position key.
+ * Keys are computed with the SplitMix64 finalizer instead of being read from a table,
+ * so that boards of any size share them without allocating anything.
+ */
+final class Zobrist {
+
+    private Zobrist() {}
+
+    /**
+     * Get the key of a token of a color in a slot
+     * @param index the bit index of the slot
+     * @param color the ordinal of the token color
+     * @return a well-mixed 64 bit key
+     */
+    static long key(int index, int color) {
+        long z = (index * 2L + color + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
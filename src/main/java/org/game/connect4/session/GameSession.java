@@ -0,0 +1,86 @@
+package org.game.connect4.session;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.model.GridSnapshot;
+
+/**
+ * GameSession pairs a hosted game with its session ID and the time it was last used.
+ * The game is only touched while holding the lock stripe of the session, see {@link GameSessionManager},
+ * while the last published snapshot of its grid can be read by any thread.
+ */
+final class GameSession {
+    /**
+     * ID of the session
+     */
+    private final long id;
+    /**
+     * Hosted game
+     */
+    private final ConnectFourGame game;
+    /**
+     * Last time the session was used, in System.nanoTime() units
+     */
+    private volatile long lastAccess;
+    /**
+     * Snapshot of the grid of the game, published after every change
+     */
+    private volatile GridSnapshot snapshot;
+
+    /**
+     * Constructs a GameSession used now
+     * @param id ID of the session
+     * @param game hosted game
+     */
+    GameSession(long id, ConnectFourGame game) {
+        this.id = id;
+        this.game = game;
+        this.lastAccess = System.nanoTime();
+        this.snapshot = game.getGameGrid().snapshot();
+    }
+
+    /**
+     * Get the ID of the session
+     * @return ID of the session
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Get the hosted game
+     * @return hosted game
+     */
+    ConnectFourGame getGame() {
+        return game;
+    }
+
+    /**
+     * Get the last time the session was used
+     * @return time in System.nanoTime() units
+     */
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Get the last published snapshot of the grid of the game
+     * @return snapshot of the grid
+     */
+    GridSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publish a snapshot of the current grid of the game, while holding the lock of the session
+     */
+    void publishSnapshot() {
+        snapshot = game.getGameGrid().snapshot();
+    }
+
+    /**
+     * Mark the session as used now
+     */
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+}
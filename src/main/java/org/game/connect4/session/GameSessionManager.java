@@ -0,0 +1,416 @@
+package org.game.connect4.session;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.exception.IllegalMoveException;
+import org.game.connect4.exception.SessionLimitException;
+import org.game.connect4.exception.SessionNotFoundException;
+import org.game.connect4.journal.GameFactory;
+import org.game.connect4.journal.MoveJournal;
+import org.game.connect4.model.ConnectFourStatus;
+import org.game.connect4.model.GridSnapshot;
+import org.game.connect4.util.GameStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * GameSessionManager hosts many {@link ConnectFourGame} instances in one process, keyed by session ID.
+ * <br/>
+ * Sessions are kept in a concurrent map, and every access to a game holds one of a fixed set of lock stripes
+ * chosen by the session ID, so moves on different games rarely contend and there is no global lock.
+ * The cost of a move does not depend on the number of hosted sessions.
+ * After every move an immutable {@link GridSnapshot} of the grid is published, which spectators and analyses
+ * read through {@link #getSnapshot(long)} without taking any lock.
+ * <br/>
+ * The number of sessions is capped: when the manager is full, idle sessions are evicted and, if none is idle,
+ * new sessions are refused with a {@link SessionLimitException} that clients should treat as a request to back off.
+ * Sessions unused for longer than the idle timeout are also evicted periodically by a background thread,
+ * which {@link #close()} stops.
+ * <br/>
+ * With a {@link MoveJournal}, the start, moves and end of every session are appended to the journal while
+ * holding the lock of the session, and {@link #recover(GameFactory)} hosts the games in progress again after a restart.
+ */
+public class GameSessionManager implements AutoCloseable {
+    /**
+     * Default number of lock stripes
+     */
+    public static final int DEFAULT_STRIPES = 1024;
+
+    /**
+     * Hosted sessions by ID
+     */
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    /**
+     * Locks guarding the games, a session uses the stripe selected by its ID
+     */
+    private final ReentrantLock[] locks;
+    /**
+     * Number of hosted sessions, including the ones being created
+     */
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    /**
+     * Source of the session IDs
+     */
+    private final AtomicLong nextId = new AtomicLong(1);
+    /**
+     * Maximum number of hosted sessions
+     */
+    private final int maxSessions;
+    /**
+     * Time after which an unused session is evicted, in nanoseconds, or 0 to never evict
+     */
+    private final long idleTimeoutNanos;
+    /**
+     * Thread evicting the idle sessions, or null if sessions are never evicted
+     */
+    private final ScheduledExecutorService evictor;
+    /**
+     * Journal of the sessions, or null
+     */
+    private final MoveJournal journal;
+
+    /**
+     * Constructs a GameSessionManager with the default number of lock stripes
+     * @param maxSessions maximum number of hosted sessions
+     * @param idleTimeoutMillis time after which an unused session is evicted, or 0 to never evict
+     */
+    public GameSessionManager(int maxSessions, long idleTimeoutMillis) {
+        this(maxSessions, idleTimeoutMillis, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a GameSessionManager
+     * @param maxSessions maximum number of hosted sessions
+     * @param idleTimeoutMillis time after which an unused session is evicted, or 0 to never evict
+     * @param stripes number of lock stripes, rounded up to a power of two
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public GameSessionManager(int maxSessions, long idleTimeoutMillis, int stripes) {
+        this(maxSessions, idleTimeoutMillis, stripes, null);
+    }
+
+    /**
+     * Constructs a GameSessionManager journaling its sessions
+     * @param maxSessions maximum number of hosted sessions
+     * @param idleTimeoutMillis time after which an unused session is evicted, or 0 to never evict
+     * @param stripes number of lock stripes, rounded up to a power of two
+     * @param journal journal of the sessions, or null; it is not closed by {@link #close()}
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public GameSessionManager(int maxSessions, long idleTimeoutMillis, int stripes, MoveJournal journal) {
+        if (maxSessions <= 0)
+            throw new IllegalArgumentException("Maximum number of sessions should be > 0.");
+        if (idleTimeoutMillis < 0)
+            throw new IllegalArgumentException("Idle timeout should be >= 0.");
+        if (stripes <= 0 || stripes > 1 << 20)
+            throw new IllegalArgumentException("Number of lock stripes should be between 1 and " + (1 << 20) + ".");
+        this.maxSessions = maxSessions;
+        this.journal = journal;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        int size = 1;
+        while (size < stripes)
+            size <<= 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new ReentrantLock();
+        if (idleTimeoutMillis > 0) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "connect4-session-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleTimeoutMillis / 4);
+            evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        }
+        else {
+            this.evictor = null;
+        }
+    }
+
+    /**
+     * Host a game in a new session
+     * @param game a game created by {@link org.game.connect4.ConnectFourInitializer}, not used elsewhere afterwards
+     * @return the ID of the new session
+     * @throws SessionLimitException if the manager is full and no session is idle
+     * @throws IllegalArgumentException if the game is too large for the journal of the manager
+     */
+    public long createSession(ConnectFourGame game) {
+        if (!reserveSession() && (evictIdle() == 0 || !reserveSession()))
+            throw new SessionLimitException("Too many game sessions! At most " + maxSessions + " games can be hosted.");
+        long id = nextId.getAndIncrement();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (journal != null)
+                journal.appendStart(id, game);
+            game.setGameId(id);
+            sessions.put(id, new GameSession(id, game));
+        }
+        catch (RuntimeException e) {
+            sessionCount.decrementAndGet();
+            throw e;
+        }
+        finally {
+            lock.unlock();
+        }
+        return id;
+    }
+
+    /**
+     * Host again the games in progress recorded in the journal, under their recorded session IDs.
+     * It is meant to be called once, after a restart and before any session is created. The sessions whose moves
+     * can not be replayed are not recovered, {@link MoveJournal#getDroppedSessions()} counts them.
+     * @param factory the factory of the fresh games the moves are replayed into
+     * @return the number of recovered sessions
+     * @throws IllegalStateException if the manager has no journal, or the games in progress do not fit
+     */
+    public int recover(GameFactory factory) {
+        if (journal == null)
+            throw new IllegalStateException("Sessions can only be recovered from a journal.");
+        Map<Long, ConnectFourGame> games = journal.replay(factory);
+        /* never hand out again the ID of a session recorded in the journal, even an ended one */
+        journal.forEach((type, session, value1, value2, value3) -> nextId.accumulateAndGet(session + 1, Math::max));
+        if (games.size() > maxSessions - sessionCount.get())
+            throw new IllegalStateException(games.size() + " sessions can not be recovered, at most "
+                    + maxSessions + " games can be hosted.");
+        for (Map.Entry<Long, ConnectFourGame> entry : games.entrySet()) {
+            long id = entry.getKey();
+            entry.getValue().setGameId(id);
+            sessionCount.incrementAndGet();
+            sessions.put(id, new GameSession(id, entry.getValue()));
+        }
+        return games.size();
+    }
+
+    /**
+     * Play a move for the current player of a session, then check the game and pass the turn if it continues
+     * @param sessionId the ID of the session
+     * @param column the column number (starting from 1...) where the current player wants to put a token
+     * @return the status of the game after the move
+     * @throws SessionNotFoundException if the session does not exist
+     * @throws IllegalMoveException if the game is over or the column can not be played
+     */
+    public ConnectFourStatus playMove(long sessionId, int column) {
+        GameSession session = getSession(sessionId);
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            checkHosted(session);
+            session.touch();
+            ConnectFourGame game = session.getGame();
+            if (game.getStatus().getGameStatus() != GameStatus.CONTINUE)
+                throw new IllegalMoveException("The game of session " + sessionId + " is over.");
+            if (!game.playMove(column))
+                throw new IllegalMoveException("Column " + column + " can not be played in session " + sessionId + ".");
+            if (journal != null) {
+                /* the game and its journal change together or not at all, so a move that can not be journaled is undone */
+                try {
+                    journal.appendMove(sessionId, game.getMoveCount() - 1, column, game.getCurrentPlayer().getTokenColor().ordinal());
+                }
+                catch (RuntimeException e) {
+                    game.undoMove();
+                    throw e;
+                }
+            }
+            ConnectFourStatus status = game.checkGameStatus(column);
+            if (status.getGameStatus() == GameStatus.CONTINUE)
+                game.switchPlayer();
+            session.publishSnapshot();
+            return status;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a function on the game of a session while holding its lock.
+     * The function must not keep the game, nor call this manager for another session.
+     * Moves played by the function are not journaled, moves should be played through {@link #playMove(long, int)}.
+     * A snapshot of the grid is published once the function returns.
+     * @param sessionId the ID of the session
+     * @param function the function reading or updating the game
+     * @param <T> the type of the result
+     * @return the result of the function
+     * @throws SessionNotFoundException if the session does not exist
+     */
+    public <T> T withGame(long sessionId, Function<ConnectFourGame, T> function) {
+        GameSession session = getSession(sessionId);
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            checkHosted(session);
+            session.touch();
+            try {
+                return function.apply(session.getGame());
+            }
+            finally {
+                session.publishSnapshot();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the last snapshot of the grid of a session, published after its last move.
+     * No lock is taken and the session is not marked as used, so any number of spectators can poll it.
+     * @param sessionId the ID of the session
+     * @return the snapshot of the grid
+     * @throws SessionNotFoundException if the session does not exist
+     */
+    public GridSnapshot getSnapshot(long sessionId) {
+        return getSession(sessionId).getSnapshot();
+    }
+
+    /**
+     * Check whether a session is hosted
+     * @param sessionId the ID of the session
+     * @return true if the session exists
+     */
+    public boolean hasSession(long sessionId) {
+        return sessions.containsKey(sessionId);
+    }
+
+    /**
+     * Close a session
+     * @param sessionId the ID of the session
+     * @return true if the session existed
+     */
+    public boolean closeSession(long sessionId) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            if (!sessions.containsKey(sessionId))
+                return false;
+            if (journal != null)
+                journal.appendEnd(sessionId);
+            sessions.remove(sessionId);
+            sessionCount.decrementAndGet();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evict the sessions unused for longer than the idle timeout
+     * @return the number of evicted sessions
+     */
+    public int evictIdle() {
+        if (idleTimeoutNanos == 0)
+            return 0;
+        int evicted = 0;
+        for (GameSession session : sessions.values()) {
+            if (System.nanoTime() - session.getLastAccess() <= idleTimeoutNanos)
+                continue;
+            ReentrantLock lock = lockFor(session.getId());
+            /* skip a session in use rather than waiting for it, it is not idle anyway */
+            if (!lock.tryLock())
+                continue;
+            try {
+                if (System.nanoTime() - session.getLastAccess() > idleTimeoutNanos
+                        && sessions.get(session.getId()) == session) {
+                    if (journal != null)
+                        journal.appendEnd(session.getId());
+                    sessions.remove(session.getId());
+                    sessionCount.decrementAndGet();
+                    evicted++;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the number of hosted sessions
+     * @return number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Get the maximum number of hosted sessions
+     * @return maximum number of sessions
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Get the number of lock stripes
+     * @return number of stripes
+     */
+    public int getStripes() {
+        return locks.length;
+    }
+
+    /**
+     * Stop evicting idle sessions in the background. Hosted sessions stay available.
+     */
+    @Override
+    public void close() {
+        if (evictor != null)
+            evictor.shutdownNow();
+    }
+
+    /**
+     * Get a hosted session
+     * @param sessionId the ID of the session
+     * @return the session
+     * @throws SessionNotFoundException if the session does not exist
+     */
+    private GameSession getSession(long sessionId) {
+        GameSession session = sessions.get(sessionId);
+        if (session == null)
+            throw new SessionNotFoundException("Game session " + sessionId + " does not exist!");
+        return session;
+    }
+
+    /**
+     * Check, while holding its lock, that a session has not been closed or evicted since it was looked up
+     * @param session the session
+     * @throws SessionNotFoundException if the session is no longer hosted
+     */
+    private void checkHosted(GameSession session) {
+        if (sessions.get(session.getId()) != session)
+            throw new SessionNotFoundException("Game session " + session.getId() + " does not exist!");
+    }
+
+    /**
+     * Take one of the free places for a new session
+     * @return false if the manager is full
+     */
+    private boolean reserveSession() {
+        while (true) {
+            int count = sessionCount.get();
+            if (count >= maxSessions)
+                return false;
+            if (sessionCount.compareAndSet(count, count + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Get the lock stripe of a session
+     * @param sessionId the ID of the session
+     * @return the lock guarding the game of the session
+     */
+    private ReentrantLock lockFor(long sessionId) {
+        long hash = sessionId * 0x9E3779B97F4A7C15L;
+        return locks[(int) (hash ^ (hash >>> 32)) & (locks.length - 1)];
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The package includes the session manager hosting many concurrent Connect Four games in one process.
+ */
+package org.game.connect4.session;
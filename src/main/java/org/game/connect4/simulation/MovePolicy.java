@@ -0,0 +1,95 @@
+package org.game.connect4.simulation;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.engine.MoveEngine;
+import org.game.connect4.model.Bitboard;
+import org.game.connect4.model.Player;
+
+import java.util.SplittableRandom;
+
+/**
+ * MovePolicy picks the moves of a player during self-play.
+ * A policy is shared by every worker of a simulation, so it must not keep state between calls.
+ */
+public interface MovePolicy {
+    /**
+     * Pick the move of the current player of a game which is not over yet
+     * @param game the game to play
+     * @param random the random generator of the worker playing the game
+     * @return the column number (starting from 1...) to play
+     */
+    int selectMove(ConnectFourGame game, SplittableRandom random);
+
+    /**
+     * Get a policy which plays uniformly at random among the playable columns
+     * @return the random policy
+     */
+    static MovePolicy random() {
+        return MovePolicy::randomMove;
+    }
+
+    /**
+     * Get a policy which wins on the spot when it can, otherwise blocks an immediate win of the opponent,
+     * otherwise plays at random
+     * @return the greedy policy
+     */
+    static MovePolicy greedy() {
+        return (game, random) -> {
+            Bitboard bitboard = game.getGameGrid().getBitboard();
+            Player current = game.getCurrentPlayer();
+            Player opponent = current == game.getPlayer1() ? game.getPlayer2() : game.getPlayer1();
+            int column = winningColumn(bitboard, current.getTokenColor().ordinal());
+            if (column < 0)
+                column = winningColumn(bitboard, opponent.getTokenColor().ordinal());
+            return column >= 0 ? column + 1 : randomMove(game, random);
+        };
+    }
+
+    /**
+     * Get a policy which asks a move engine for every move
+     * @param engine the engine picking the moves
+     * @return the engine policy
+     */
+    static MovePolicy engine(MoveEngine engine) {
+        return (game, random) -> engine.selectMove(game);
+    }
+
+    /**
+     * Pick a playable column uniformly at random without allocating
+     * @param game the game to play
+     * @param random the random generator of the worker
+     * @return the column number (starting from 1...) to play
+     */
+    private static int randomMove(ConnectFourGame game, SplittableRandom random) {
+        Bitboard bitboard = game.getGameGrid().getBitboard();
+        int playable = 0;
+        for (int column = 0; column < bitboard.getWidth(); column++) {
+            if (bitboard.canPlay(column))
+                playable++;
+        }
+        int pick = random.nextInt(playable);
+        for (int column = 0; ; column++) {
+            if (bitboard.canPlay(column) && pick-- == 0)
+                return column + 1;
+        }
+    }
+
+    /**
+     * Find a column where a token of the given color would complete a winning line
+     * @param bitboard the bitboard of the game, left unchanged
+     * @param color the ordinal of the token color
+     * @return the column index (starting from 0...) or -1 if there is none
+     */
+    private static int winningColumn(Bitboard bitboard, int color) {
+        for (int column = 0; column < bitboard.getWidth(); column++) {
+            if (!bitboard.canPlay(column))
+                continue;
+            bitboard.play(column, color);
+            boolean win = bitboard.isWinAt(column);
+            bitboard.undo(column);
+            if (win)
+                return column;
+        }
+        return -1;
+    }
+}
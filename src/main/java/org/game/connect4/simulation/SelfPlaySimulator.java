@@ -0,0 +1,175 @@
+package org.game.connect4.simulation;
+
+import org.game.connect4.ConnectFourGame;
+import org.game.connect4.ConnectFourInitializer;
+import org.game.connect4.engine.NegamaxEngine;
+import org.game.connect4.engine.SearchLimits;
+import org.game.connect4.exception.IllegalMoveException;
+import org.game.connect4.util.GameConstants;
+import org.game.connect4.util.GameStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * SelfPlaySimulator plays batches of Computer Vs Computer games headlessly and aggregates their outcomes.
+ * The games are split evenly across a pool of workers. Every worker reuses a single game created by
+ * {@link ConnectFourInitializer#initializeComputerVsComputer(int, int)}, resetting it after each game,
+ * and owns a random generator split from the seed of the run, so a run with a given seed and thread count
+ * always plays the same games. Nothing is printed while playing.
+ * <br/>
+ * Usage from the command line: {@code SelfPlaySimulator [games] [height] [width] [policy1] [policy2] [threads]}
+ * where a policy is one of random, greedy or engine.
+ */
+public class SelfPlaySimulator {
+    /**
+     * Height of the grid of every game
+     */
+    private final int height;
+    /**
+     * Width of the grid of every game
+     */
+    private final int width;
+    /**
+     * Policy of the first player
+     */
+    private final MovePolicy policy1;
+    /**
+     * Policy of the second player
+     */
+    private final MovePolicy policy2;
+    /**
+     * Number of workers playing games in parallel
+     */
+    private final int threads;
+
+    /**
+     * Constructs a SelfPlaySimulator
+     * @param height height of the grid of every game
+     * @param width width of the grid of every game
+     * @param policy1 policy of the first player
+     * @param policy2 policy of the second player
+     * @param threads number of workers playing games in parallel
+     * @throws org.game.connect4.exception.InvalidDimensionException when the grid dimensions are invalid
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public SelfPlaySimulator(int height, int width, MovePolicy policy1, MovePolicy policy2, int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads should be > 0.");
+        new ConnectFourInitializer().initializeComputerVsComputer(height, width);
+        this.height = height;
+        this.width = width;
+        this.policy1 = policy1;
+        this.policy2 = policy2;
+        this.threads = threads;
+    }
+
+    /**
+     * Play a batch of games
+     * @param games number of games to play
+     * @param seed seed of the random generators of the workers
+     * @return the aggregated outcomes of the games
+     * @throws IllegalMoveException if a policy picks a move which can not be played
+     */
+    public SimulationStats run(long games, long seed) {
+        long start = System.nanoTime();
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Callable<long[]>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            long share = games / threads + (i < games % threads ? 1 : 0);
+            SplittableRandom random = master.split();
+            workers.add(() -> play(share, random));
+        }
+        long[] totals = new long[4];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<long[]> result : pool.invokeAll(workers)) {
+                long[] counts = result.get();
+                for (int i = 0; i < totals.length; i++)
+                    totals[i] += counts[i];
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The simulation has been interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            pool.shutdown();
+        }
+        return new SimulationStats(games, totals[0], totals[1], totals[2], totals[3], System.nanoTime() - start);
+    }
+
+    /**
+     * Play the games of a single worker
+     * @param games number of games to play
+     * @param random random generator of the worker
+     * @return the number of wins of player 1, wins of player 2, ties and moves
+     */
+    private long[] play(long games, SplittableRandom random) {
+        ConnectFourGame game = new ConnectFourInitializer().initializeComputerVsComputer(height, width);
+        long[] counts = new long[4];
+        for (long g = 0; g < games; g++) {
+            while (true) {
+                MovePolicy policy = game.getCurrentPlayer() == game.getPlayer1() ? policy1 : policy2;
+                int column = policy.selectMove(game, random);
+                if (!game.playMove(column))
+                    throw new IllegalMoveException("The policy of " + game.getCurrentPlayer().getName() +
+                            " has picked the invalid column " + column + ".");
+                GameStatus status = game.checkGameStatus(column).getGameStatus();
+                if (status != GameStatus.CONTINUE) {
+                    counts[status == GameStatus.PLAYER_1_WINS ? 0 : status == GameStatus.PLAYER_2_WINS ? 1 : 2]++;
+                    break;
+                }
+                game.switchPlayer();
+            }
+            counts[3] += game.getMoveCount();
+            /* rewind the game so that the next one starts from an empty grid with player 1 to move */
+            game.reset();
+        }
+        return counts;
+    }
+
+    /**
+     * Get a policy by its command line name
+     * @param name one of random, greedy or engine
+     * @return the policy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    private static MovePolicy policy(String name) {
+        switch (name) {
+            case "random":
+                return MovePolicy.random();
+            case "greedy":
+                return MovePolicy.greedy();
+            case "engine":
+                return MovePolicy.engine(new NegamaxEngine(SearchLimits.ofDepth(4)));
+            default:
+                throw new IllegalArgumentException("Unknown policy " + name + "! It should be random, greedy or engine.");
+        }
+    }
+
+    /**
+     * Run a simulation from the command line and print its statistics once it is over
+     * @param args optional games, height, width, policy1, policy2 and threads
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : GameConstants.DEFAULT_HEIGHT;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : GameConstants.DEFAULT_WIDTH;
+        MovePolicy policy1 = policy(args.length > 3 ? args[3] : "random");
+        MovePolicy policy2 = policy(args.length > 4 ? args[4] : "random");
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        SelfPlaySimulator simulator = new SelfPlaySimulator(height, width, policy1, policy2, threads);
+        System.out.println(simulator.run(games, System.nanoTime()));
+    }
+}
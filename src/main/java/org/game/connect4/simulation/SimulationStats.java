@@ -0,0 +1,146 @@
+package org.game.connect4.simulation;
+
+import java.util.Locale;
+
+/**
+ * SimulationStats aggregates the outcomes of the games of a self-play simulation.
+ */
+public class SimulationStats {
+    /**
+     * Number of games played
+     */
+    private final long games;
+    /**
+     * Number of games won by player 1
+     */
+    private final long player1Wins;
+    /**
+     * Number of games won by player 2
+     */
+    private final long player2Wins;
+    /**
+     * Number of tied games
+     */
+    private final long ties;
+    /**
+     * Number of moves over all games
+     */
+    private final long totalMoves;
+    /**
+     * Wall-clock time of the simulation in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs SimulationStats with the given values
+     * @param games number of games played
+     * @param player1Wins number of games won by player 1
+     * @param player2Wins number of games won by player 2
+     * @param ties number of tied games
+     * @param totalMoves number of moves over all games
+     * @param elapsedNanos wall-clock time of the simulation in nanoseconds
+     */
+    public SimulationStats(long games, long player1Wins, long player2Wins, long ties, long totalMoves, long elapsedNanos) {
+        this.games = games;
+        this.player1Wins = player1Wins;
+        this.player2Wins = player2Wins;
+        this.ties = ties;
+        this.totalMoves = totalMoves;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the number of games played
+     * @return number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Get the number of games won by player 1
+     * @return number of wins of player 1
+     */
+    public long getPlayer1Wins() {
+        return player1Wins;
+    }
+
+    /**
+     * Get the number of games won by player 2
+     * @return number of wins of player 2
+     */
+    public long getPlayer2Wins() {
+        return player2Wins;
+    }
+
+    /**
+     * Get the number of tied games
+     * @return number of ties
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Get the number of moves over all games
+     * @return number of moves
+     */
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /**
+     * Get the wall-clock time of the simulation
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the share of games won by player 1
+     * @return win rate between 0 and 1
+     */
+    public double getPlayer1WinRate() {
+        return games == 0 ? 0.0 : (double) player1Wins / games;
+    }
+
+    /**
+     * Get the share of games won by player 2
+     * @return win rate between 0 and 1
+     */
+    public double getPlayer2WinRate() {
+        return games == 0 ? 0.0 : (double) player2Wins / games;
+    }
+
+    /**
+     * Get the share of tied games
+     * @return tie rate between 0 and 1
+     */
+    public double getTieRate() {
+        return games == 0 ? 0.0 : (double) ties / games;
+    }
+
+    /**
+     * Get the average number of moves of a game
+     * @return average game length in moves
+     */
+    public double getAverageLength() {
+        return games == 0 ? 0.0 : (double) totalMoves / games;
+    }
+
+    /**
+     * Get the simulation speed
+     * @return games played per second
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "games=%d player1=%.4f player2=%.4f tie=%.4f avgLength=%.2f gamesPerSecond=%.0f",
+                games, getPlayer1WinRate(), getPlayer2WinRate(), getTieRate(), getAverageLength(), getGamesPerSecond());
+    }
+}
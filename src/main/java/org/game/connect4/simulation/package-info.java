@@ -0,0 +1,4 @@
+/**
+ * The package includes the headless self-play simulator of the Connect Four API and its move policies.
+ */
+package org.game.connect4.simulation;
@@ -16,6 +16,14 @@ public class GameConstants {
      * The default width of a ConnectFour grid is 7
      */
     public static final int DEFAULT_WIDTH = 7;
+    /**
+     * The default number of consecutive tokens needed to win is 4
+     */
+    public static final int DEFAULT_WIN_LENGTH = 4;
+    /**
+     * The smallest number of consecutive tokens needed to win is 3
+     */
+    public static final int MIN_WIN_LENGTH = 3;
     /**
      * The default name of the first computer player is 'Computer1'
      */
@@ -24,4 +32,12 @@ public class GameConstants {
      * The default name of the second computer player is 'Computer2'
      */
     public static final String DEFAULT_COMPUTER2 = "Computer2";
+    /**
+     * The default name of the first human player is 'Player1'
+     */
+    public static final String DEFAULT_PLAYER1 = "Player1";
+    /**
+     * The default name of the second human player is 'Player2'
+     */
+    public static final String DEFAULT_PLAYER2 = "Player2";
 }